@@ -0,0 +1,60 @@
+package ch.bbw.pr.employee.benchmark;
+
+import ch.bbw.pr.employee.Application;
+import ch.bbw.pr.employee.model.Department;
+import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.service.DepartmentService;
+import ch.bbw.pr.employee.service.EmployeeService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * BenchmarkApplication
+ * Starts the application against an H2 in-memory database and seeds it with employees.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+final class BenchmarkApplication {
+   static final String[] DEPARTMENTS = {"sales", "development"};
+
+   private BenchmarkApplication() {
+   }
+
+   /**
+    * Start the application, additional arguments like "--server.port=0" override the defaults.
+    */
+   static ConfigurableApplicationContext start(WebApplicationType type, int employees, String... arguments) {
+      List<String> args = new ArrayList<>(List.of(
+            // command line arguments override the MariaDB settings of application.properties
+            // MariaDB mode, the Flyway migrations create the schema
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--logging.level.ch.bbw.pr.employee=WARN"));
+      args.addAll(List.of(arguments));
+      ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+            .web(type)
+            .run(args.toArray(String[]::new));
+      seed(context, employees);
+      return context;
+   }
+
+   private static void seed(ConfigurableApplicationContext context, int employees) {
+      DepartmentService departmentService = context.getBean(DepartmentService.class);
+      Department[] departments = new Department[DEPARTMENTS.length];
+      for (int i = 0; i < DEPARTMENTS.length; i++) {
+         departments[i] = departmentService.saveDepartment(Department.builder().description(DEPARTMENTS[i]).build());
+      }
+      context.getBean(EmployeeService.class).importEmployees(IntStream.range(0, employees).mapToObj(i -> Employee.builder()
+            .firstname("firstname" + i)
+            .lastname("lastname" + i)
+            .department(departments[i % departments.length])
+            .build()), 1000);
+   }
+}
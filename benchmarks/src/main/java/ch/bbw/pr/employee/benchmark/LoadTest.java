@@ -0,0 +1,101 @@
+package ch.bbw.pr.employee.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LoadTest
+ * Compares the HTTP throughput of the application with platform threads and with virtual threads
+ * (spring.threads.virtual.enabled) under many concurrent clients. Every client loops over
+ * /readById and /findAll requests until the measurement time is over.
+ * System properties: concurrency (1000), employees (10000), seconds (20).
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+public final class LoadTest {
+
+   private LoadTest() {
+   }
+
+   public static void main(String[] args) throws Exception {
+      int concurrency = Integer.getInteger("concurrency", 1000);
+      int employees = Integer.getInteger("employees", 10_000);
+      Duration duration = Duration.ofSeconds(Long.getLong("seconds", 20));
+
+      Result platform = run(false, concurrency, employees, duration);
+      Result virtual = run(true, concurrency, employees, duration);
+
+      System.out.printf("%nLoad test with %d concurrent clients, %d employees, %d s%n",
+            concurrency, employees, duration.toSeconds());
+      System.out.println(platform.format("platform threads"));
+      System.out.println(virtual.format("virtual threads"));
+   }
+
+   private static Result run(boolean virtualThreads, int concurrency, int employees, Duration duration) throws Exception {
+      try (ConfigurableApplicationContext context = BenchmarkApplication.start(WebApplicationType.SERVLET, employees,
+            "--server.port=0", "--spring.threads.virtual.enabled=" + virtualThreads)) {
+         String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+         HttpClient client = HttpClient.newBuilder()
+               .executor(Executors.newVirtualThreadPerTaskExecutor())
+               .build();
+         // warm up with a quarter of the measurement time, then measure
+         load(client, baseUrl, concurrency, employees, duration.dividedBy(4));
+         return load(client, baseUrl, concurrency, employees, duration);
+      }
+   }
+
+   private static Result load(HttpClient client, String baseUrl, int concurrency, int employees, Duration duration) {
+      LongAdder ok = new LongAdder();
+      LongAdder failed = new LongAdder();
+      LongAdder latencyNanos = new LongAdder();
+      LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+      long deadline = System.nanoTime() + duration.toNanos();
+      try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+         for (int i = 0; i < concurrency; i++) {
+            clients.submit(() -> {
+               while (System.nanoTime() < deadline) {
+                  ThreadLocalRandom random = ThreadLocalRandom.current();
+                  String path = random.nextBoolean()
+                        ? "/readById?id=" + (1 + random.nextInt(employees))
+                        : "/findAll?size=20&after=" + random.nextInt(employees);
+                  long start = System.nanoTime();
+                  try {
+                     HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+                           HttpResponse.BodyHandlers.discarding());
+                     if (response.statusCode() == 200) {
+                        ok.increment();
+                     } else {
+                        failed.increment();
+                     }
+                  } catch (Exception e) {
+                     failed.increment();
+                  }
+                  long latency = System.nanoTime() - start;
+                  latencyNanos.add(latency);
+                  maxLatencyNanos.accumulate(latency);
+               }
+            });
+         }
+      }
+      return new Result(ok.sum(), failed.sum(), latencyNanos.sum(), maxLatencyNanos.get(), duration);
+   }
+
+   private record Result(long ok, long failed, long latencyNanos, long maxLatencyNanos, Duration duration) {
+      String format(String mode) {
+         long requests = Math.max(1, ok + failed);
+         return String.format("%-17s %10.0f req/s  ok %9d  failed %7d  mean %8.2f ms  max %9.2f ms", mode,
+               ok * 1000.0 / duration.toMillis(), ok, failed, latencyNanos / 1e6 / requests, maxLatencyNanos / 1e6);
+      }
+   }
+}
@@ -0,0 +1,90 @@
+package ch.bbw.pr.employee.benchmark;
+
+import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import ch.bbw.pr.employee.service.BusinessService;
+import ch.bbw.pr.employee.service.EmployeeSearchIndex;
+import ch.bbw.pr.employee.service.EmployeeService;
+import ch.bbw.pr.employee.service.MutationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ServiceBenchmark
+ * Benchmarks the hot paths of EmployeeService and BusinessService against an H2 in-memory
+ * database seeded with the given number of employees. Throughput plus latency percentiles (SampleTime).
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiceBenchmark {
+   @Param({"1000", "100000", "1000000"})
+   private int employees;
+
+   private ConfigurableApplicationContext context;
+   private EmployeeService employeeService;
+   private BusinessService businessService;
+   private EmployeeSearchIndex searchIndex;
+
+   @Setup(Level.Trial)
+   public void setUp() throws InterruptedException {
+      context = BenchmarkApplication.start(WebApplicationType.NONE, employees);
+      employeeService = context.getBean(EmployeeService.class);
+      businessService = context.getBean(BusinessService.class);
+      searchIndex = context.getBean(EmployeeSearchIndex.class);
+      // the import rebuilds the search index in the background
+      while (searchIndex.size() < employees) {
+         Thread.sleep(100);
+      }
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() {
+      context.close();
+   }
+
+   @Benchmark
+   public Optional<Employee> getEmployeeByName() {
+      return employeeService.getEmployeeByName("lastname" + ThreadLocalRandom.current().nextInt(employees));
+   }
+
+   // swapped letters, no token starts with the query, so the search falls back to the trigram candidates
+   @Benchmark
+   public List<EmployeeSummary> searchWithTypo() {
+      return searchIndex.search("lsatname" + ThreadLocalRandom.current().nextInt(employees), 10);
+   }
+
+   @Benchmark
+   public MutationResult addEmployee() {
+      return employeeService.addEmployee("bench", "lastname" + ThreadLocalRandom.current().nextInt(employees));
+   }
+
+   @Benchmark
+   public Employee createEmployeeWithDepartment() {
+      return businessService.createEmployeeWithDepartment("bench", "bench",
+            BenchmarkApplication.DEPARTMENTS[ThreadLocalRandom.current().nextInt(BenchmarkApplication.DEPARTMENTS.length)]);
+   }
+}
@@ -94,6 +94,12 @@ ALTER TABLE `department`
 ALTER TABLE `employee`
   MODIFY `id` int(11) NOT NULL AUTO_INCREMENT, AUTO_INCREMENT=5;
 
+--
+-- Sequenzen für die IDs (Hibernate pooled optimizer, INCREMENT BY = allocationSize)
+--
+CREATE SEQUENCE `department_seq` START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE `employee_seq` START WITH 100 INCREMENT BY 50;
+
 --
 -- Constraints der exportierten Tabellen
 --
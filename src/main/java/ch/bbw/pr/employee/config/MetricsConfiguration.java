@@ -0,0 +1,134 @@
+package ch.bbw.pr.employee.config;
+
+import ch.bbw.pr.employee.service.AsyncBusinessService;
+import ch.bbw.pr.employee.service.BusinessService;
+import ch.bbw.pr.employee.service.DepartmentService;
+import ch.bbw.pr.employee.service.EmployeeGroupCommit;
+import ch.bbw.pr.employee.service.EmployeeService;
+import ch.bbw.pr.employee.service.LastnameFilter;
+import ch.bbw.pr.employee.service.OptimisticRetry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MetricsConfiguration
+ * Registers the counters of the services with Micrometer.
+ * Request timers (http.server.requests), repository timers (spring.data.repository.invocations),
+ * Hibernate statistics and the connection pool gauges are configured by Spring Boot.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Configuration
+public class MetricsConfiguration {
+
+   @Bean
+   public MeterBinder departmentCacheMetrics(DepartmentService departmentService) {
+      return registry -> {
+         FunctionCounter.builder("department.cache.requests", departmentService, DepartmentService::getCacheHits)
+               .tag("result", "hit")
+               .description("Department lookups by description served from the cache")
+               .register(registry);
+         FunctionCounter.builder("department.cache.requests", departmentService, DepartmentService::getCacheMisses)
+               .tag("result", "miss")
+               .description("Department lookups by description that queried the database")
+               .register(registry);
+         Gauge.builder("department.cache.size", departmentService, DepartmentService::getCacheSize)
+               .description("Cached departments")
+               .register(registry);
+      };
+   }
+
+   @Bean
+   public MeterBinder readCoalescingMetrics(EmployeeService employeeService, BusinessService businessService) {
+      return registry -> {
+         FunctionCounter.builder("service.reads", employeeService, EmployeeService::getExecutedReads)
+               .tags("service", "EmployeeService", "result", "executed")
+               .description("Coalescable reads that queried the database")
+               .register(registry);
+         FunctionCounter.builder("service.reads", employeeService, EmployeeService::getCoalescedReads)
+               .tags("service", "EmployeeService", "result", "coalesced")
+               .description("Reads that shared the result of an identical read in flight")
+               .register(registry);
+         FunctionCounter.builder("service.reads", businessService, BusinessService::getExecutedReads)
+               .tags("service", "BusinessService", "result", "executed")
+               .description("Coalescable reads that queried the database")
+               .register(registry);
+         FunctionCounter.builder("service.reads", businessService, BusinessService::getCoalescedReads)
+               .tags("service", "BusinessService", "result", "coalesced")
+               .description("Reads that shared the result of an identical read in flight")
+               .register(registry);
+      };
+   }
+
+   @Bean
+   public MeterBinder lastnameFilterMetrics(LastnameFilter lastnameFilter) {
+      return registry -> {
+         FunctionCounter.builder("employee.lastname.lookups", lastnameFilter, LastnameFilter::getAvoidedQueries)
+               .tag("result", "avoided")
+               .description("Lookups by lastname answered by the filter without a query")
+               .register(registry);
+         FunctionCounter.builder("employee.lastname.lookups", lastnameFilter, LastnameFilter::getFalsePositives)
+               .tag("result", "false-positive")
+               .description("Lookups by lastname that passed the filter and found no employee")
+               .register(registry);
+      };
+   }
+
+   @Bean
+   public MeterBinder groupCommitMetrics(EmployeeGroupCommit groupCommit) {
+      return registry -> {
+         FunctionCounter.builder("employee.group-commit.batches", groupCommit, EmployeeGroupCommit::getBatches)
+               .description("Transactions inserting a batch of created employees")
+               .register(registry);
+         FunctionCounter.builder("employee.group-commit.rows", groupCommit, EmployeeGroupCommit::getRows)
+               .description("Created employees, divided by the batches the average batch size")
+               .register(registry);
+         FunctionTimer.builder("employee.group-commit.queue.wait", groupCommit,
+                     EmployeeGroupCommit::getRows, EmployeeGroupCommit::getQueueWaitMillis, TimeUnit.MILLISECONDS)
+               .description("Time created employees waited in the queue for their batch")
+               .register(registry);
+         Gauge.builder("employee.group-commit.queue.size", groupCommit, EmployeeGroupCommit::getQueueSize)
+               .description("Created employees waiting for the next batch")
+               .register(registry);
+      };
+   }
+
+   @Bean
+   public MeterBinder optimisticRetryMetrics(OptimisticRetry retry) {
+      return registry -> {
+         FunctionCounter.builder("employee.optimistic.writes", retry, OptimisticRetry::getCommitted)
+               .tag("result", "committed")
+               .description("Read-modify-write transactions committed")
+               .register(registry);
+         FunctionCounter.builder("employee.optimistic.writes", retry, OptimisticRetry::getConflicts)
+               .tag("result", "conflict")
+               .description("Attempts rolled back because the employee was changed concurrently")
+               .register(registry);
+         FunctionCounter.builder("employee.optimistic.writes", retry, OptimisticRetry::getFailed)
+               .tag("result", "failed")
+               .description("Read-modify-writes given up after the last attempt")
+               .register(registry);
+      };
+   }
+
+   @Bean
+   public MeterBinder asyncExecutorMetrics(AsyncBusinessService asyncService) {
+      return registry -> {
+         Gauge.builder("employee.async.active", asyncService, AsyncBusinessService::getActiveCount)
+               .description("Asynchronous operations running")
+               .register(registry);
+         Gauge.builder("employee.async.queue.size", asyncService, AsyncBusinessService::getQueueSize)
+               .description("Asynchronous operations waiting for a thread")
+               .register(registry);
+         FunctionCounter.builder("employee.async.rejected", asyncService, AsyncBusinessService::getRejected)
+               .description("Asynchronous operations rejected because the queue was full")
+               .register(registry);
+      };
+   }
+}
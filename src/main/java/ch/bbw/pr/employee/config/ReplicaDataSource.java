@@ -0,0 +1,83 @@
+package ch.bbw.pr.employee.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ReplicaDataSource
+ * Hands out connections of the read replicas round-robin. A replica that cannot be reached
+ * is skipped for retryAfter, if no replica is available the connection comes from the primary.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+public class ReplicaDataSource extends AbstractDataSource implements Closeable {
+   private static final Logger logger = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+   private final DataSource primary;
+   private final List<DataSource> replicas;
+   private final long retryAfterNanos;
+   private final AtomicInteger next = new AtomicInteger();
+   // System.nanoTime() until which the replica at the same index is skipped
+   private final AtomicLongArray unavailableUntil;
+
+   public ReplicaDataSource(DataSource primary, List<DataSource> replicas, Duration retryAfter) {
+      this.primary = primary;
+      this.replicas = List.copyOf(replicas);
+      this.retryAfterNanos = retryAfter.toNanos();
+      this.unavailableUntil = new AtomicLongArray(replicas.size());
+      long now = System.nanoTime();
+      for (int i = 0; i < replicas.size(); i++) {
+         unavailableUntil.set(i, now);
+      }
+   }
+
+   @Override
+   public Connection getConnection() throws SQLException {
+      int start = next.getAndIncrement();
+      for (int i = 0; i < replicas.size(); i++) {
+         int index = Math.floorMod(start + i, replicas.size());
+         if (System.nanoTime() - unavailableUntil.get(index) < 0) {
+            continue;
+         }
+         try {
+            return replicas.get(index).getConnection();
+         } catch (SQLException e) {
+            logger.warn("ReplicaDataSource.getConnection: replica " + index + " unavailable: " + e.getMessage());
+            unavailableUntil.set(index, System.nanoTime() + retryAfterNanos);
+         }
+      }
+      if (!replicas.isEmpty()) {
+         logger.warn("ReplicaDataSource.getConnection: no replica available, using the primary");
+      }
+      return primary.getConnection();
+   }
+
+   @Override
+   public Connection getConnection(String username, String password) throws SQLException {
+      throw new SQLFeatureNotSupportedException("ReplicaDataSource uses the credentials of the replicas");
+   }
+
+   /**
+    * Close the replica pools, the primary is closed by its own bean.
+    */
+   @Override
+   public void close() throws IOException {
+      for (DataSource replica : replicas) {
+         if (replica instanceof Closeable closeable) {
+            closeable.close();
+         }
+      }
+   }
+}
@@ -0,0 +1,76 @@
+package ch.bbw.pr.employee.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReplicaRoutingConfiguration
+ * Read/write split: connections of read-only transactions come from the read replicas
+ * (datasource.replicas.urls), all other connections from the primary spring.datasource.url.
+ * The LazyConnectionDataSourceProxy fetches the physical connection at the first statement,
+ * when the read-only flag of the transaction is known. Replicas use the credentials of the primary.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfiguration {
+   private final DataSourceProperties properties;
+   private final List<String> replicaUrls;
+   private final Duration connectionTimeout;
+   private final Duration retryAfter;
+
+   @Autowired
+   public ReplicaRoutingConfiguration(DataSourceProperties properties,
+                                      @Value("${datasource.replicas.urls}") List<String> replicaUrls,
+                                      @Value("${datasource.replicas.connection-timeout:2s}") Duration connectionTimeout,
+                                      @Value("${datasource.replicas.retry-after:30s}") Duration retryAfter) {
+      this.properties = properties;
+      this.replicaUrls = replicaUrls;
+      this.connectionTimeout = connectionTimeout;
+      this.retryAfter = retryAfter;
+   }
+
+   @Bean
+   @Primary
+   public DataSource dataSource() {
+      LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource());
+      dataSource.setReadOnlyDataSource(replicaDataSource());
+      return dataSource;
+   }
+
+   @Bean(autowireCandidate = false)
+   @ConfigurationProperties("spring.datasource.hikari")
+   public HikariDataSource primaryDataSource() {
+      return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+   }
+
+   @Bean(autowireCandidate = false)
+   public ReplicaDataSource replicaDataSource() {
+      List<DataSource> replicas = new ArrayList<>();
+      for (String url : replicaUrls) {
+         HikariDataSource replica = properties.initializeDataSourceBuilder()
+               .type(HikariDataSource.class)
+               .url(url)
+               .build();
+         replica.setPoolName("replica-" + replicas.size());
+         // fail fast, the primary takes over while the replica is down
+         replica.setConnectionTimeout(connectionTimeout.toMillis());
+         replicas.add(replica);
+      }
+      return new ReplicaDataSource(primaryDataSource(), replicas, retryAfter);
+   }
+}
@@ -0,0 +1,59 @@
+package ch.bbw.pr.employee.control;
+
+import ch.bbw.pr.employee.service.DataVersion;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Enumeration;
+
+/**
+ * ControllerSupport
+ * What the ViewController and the EmployeeApiController share: the message shown for a concurrent
+ * change and the revalidation of conditional GET requests. A request is compared with the current
+ * version, a response carries the version its read returned, which can be newer but never older than the data.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+final class ControllerSupport {
+	static final String CONCURRENT_CHANGE = "The employee was changed at the same time by someone else, please try again.";
+
+	private ControllerSupport() {
+	}
+
+	// sets ETag and Last-Modified, true when the client already has this version (304 Not Modified);
+	// no-cache makes browsers revalidate every time instead of guessing a freshness from Last-Modified
+	static boolean notModified(ServletWebRequest request, DataVersion version) {
+		request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+		return request.checkNotModified(version.getEtag(), version.getLastModified());
+	}
+
+	// replaces the validators set by notModified with those of the version the data was read at
+	static void served(ServletWebRequest request, DataVersion version) {
+		HttpServletResponse response = request.getResponse();
+		response.setHeader(HttpHeaders.ETAG, "\"" + version.getEtag() + "\"");
+		response.setDateHeader(HttpHeaders.LAST_MODIFIED, version.getLastModified());
+	}
+
+	// true when If-None-Match names this version, unlike notModified nothing is set on the response
+	static boolean matches(ServletWebRequest request, DataVersion version) {
+		String etag = "\"" + version.getEtag() + "\"";
+		Enumeration<String> headers = request.getRequest().getHeaders(HttpHeaders.IF_NONE_MATCH);
+		while (headers.hasMoreElements()) {
+			for (String candidate : headers.nextElement().split(",")) {
+				String tag = candidate.trim();
+				if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	// validators in a ResponseEntity, for responses completed on another thread
+	static ResponseEntity.BodyBuilder withVersion(ResponseEntity.BodyBuilder response, DataVersion version) {
+		return response.cacheControl(CacheControl.noCache()).eTag(version.getEtag()).lastModified(version.getLastModified());
+	}
+}
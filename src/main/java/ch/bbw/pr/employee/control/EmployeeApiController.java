@@ -0,0 +1,316 @@
+package ch.bbw.pr.employee.control;
+
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import ch.bbw.pr.employee.service.AsyncBusinessService;
+import ch.bbw.pr.employee.service.BusinessService;
+import ch.bbw.pr.employee.service.DataVersion;
+import ch.bbw.pr.employee.service.DataVersionService;
+import ch.bbw.pr.employee.service.DepartmentStatistics;
+import ch.bbw.pr.employee.service.DepartmentStatisticsService;
+import ch.bbw.pr.employee.service.EmployeeColumnStore;
+import ch.bbw.pr.employee.service.EmployeeSearchIndex;
+import ch.bbw.pr.employee.service.EmployeeService;
+import ch.bbw.pr.employee.service.ImportReport;
+import ch.bbw.pr.employee.service.KeysetPage;
+import ch.bbw.pr.employee.service.MultiGetResult;
+import ch.bbw.pr.employee.service.MutationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static ch.bbw.pr.employee.control.ControllerSupport.CONCURRENT_CHANGE;
+import static ch.bbw.pr.employee.control.ControllerSupport.matches;
+import static ch.bbw.pr.employee.control.ControllerSupport.notModified;
+import static ch.bbw.pr.employee.control.ControllerSupport.withVersion;
+
+/**
+ * EmployeeApiController
+ * JSON API with the operations of the ViewController for machine clients. Employees are returned
+ * as EmployeeSummary, errors as problem details with the matching status code.
+ * Endpoints returning a CompletableFuture run on the pool of the AsyncBusinessService,
+ * the servlet thread is released while the queries run.
+ * The analytics endpoints count on the EmployeeColumnStore and answer 503 until it is loaded.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@RestController
+@RequestMapping("/api")
+public class EmployeeApiController {
+	private static final Logger logger = LoggerFactory.getLogger(EmployeeApiController.class);
+	private final EmployeeService service;
+	private final BusinessService businessService;
+	private final AsyncBusinessService asyncService;
+	private final DepartmentStatisticsService statisticsService;
+	private final DataVersionService dataVersionService;
+	private final EmployeeSearchIndex searchIndex;
+	private final EmployeeColumnStore columnStore;
+
+	@Autowired
+	public EmployeeApiController(EmployeeService service, BusinessService businessService, AsyncBusinessService asyncService,
+										  DepartmentStatisticsService statisticsService, DataVersionService dataVersionService,
+										  EmployeeSearchIndex searchIndex, EmployeeColumnStore columnStore) {
+		this.service = service;
+		this.businessService = businessService;
+		this.asyncService = asyncService;
+		this.statisticsService = statisticsService;
+		this.dataVersionService = dataVersionService;
+		this.searchIndex = searchIndex;
+		this.columnStore = columnStore;
+	}
+
+	public record CreateEmployeeRequest(String firstname, String lastname, String departmentDescription) {
+	}
+
+	public record TransferRequest(String departmentDescription) {
+	}
+
+	public record TransferAllRequest(List<Integer> employeeIds, String departmentDescription) {
+	}
+
+	public record RenameRequest(String lastname) {
+	}
+
+	// count of affected employees, the employees only for single-employee changes
+	public record MutationResponse(int count, List<EmployeeSummary> employees) {
+		static MutationResponse of(MutationResult result) {
+			return new MutationResponse(result.getCount(), result.getEmployees().stream().map(EmployeeSummary::of).toList());
+		}
+
+		static MutationResponse of(int count) {
+			return new MutationResponse(count, List.of());
+		}
+	}
+
+	public record CountResponse(long count) {
+	}
+
+	@GetMapping("/employees")
+	public CompletableFuture<ResponseEntity<KeysetPage<EmployeeSummary>>> findAll(@RequestParam(value = "after", defaultValue = "0") int after,
+																					  @RequestParam(value = "size", defaultValue = "${employee.page.default-size:50}") int size,
+																					  ServletWebRequest request) {
+		logger.info("ApiController.findAll after: {} size: {}", after, size);
+		DataVersion version = dataVersionService.getVersion();
+		if (matches(request, version)) {
+			return CompletableFuture.completedFuture(withVersion(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version).build());
+		}
+		return asyncService.findEmployeeSummariesAfter(after, size)
+				.thenApply(page -> withVersion(ResponseEntity.ok(), page.getVersion()).body(page.getContent()));
+	}
+
+	@GetMapping("/employees/{id}")
+	public CompletableFuture<EmployeeSummary> readById(@PathVariable("id") int id) {
+		logger.info("ApiController.readById with id: {}", id);
+		return asyncService.getEmployeeSummaryById(id).thenApply(employee -> employee.orElseThrow(
+				() -> new NoSuchElementException("Employee with ID " + id + " not found.")));
+	}
+
+	@GetMapping("/employees/by-ids")
+	public MultiGetResult<EmployeeSummary> readByIds(@RequestParam("ids") List<Integer> ids) {
+		logger.info("ApiController.readByIds with {} ids", ids.size());
+		return service.getEmployeeSummariesByIds(ids);
+	}
+
+	@GetMapping("/employees/by-lastname/{lastname}")
+	public CompletableFuture<EmployeeSummary> readByName(@PathVariable("lastname") String lastname) {
+		logger.info("ApiController.readByName with lastname: {}", lastname);
+		return asyncService.getEmployeeSummaryByName(lastname).thenApply(employee -> employee.orElseThrow(
+				() -> new NoSuchElementException("Employee with lastname " + lastname + " not found.")));
+	}
+
+	@GetMapping("/employees/search")
+	public List<EmployeeSummary> search(@RequestParam("q") String query,
+													@RequestParam(value = "limit", defaultValue = "20") int limit) {
+		logger.info("ApiController.search with query: {}", query);
+		return searchIndex.search(query, limit);
+	}
+
+	@PostMapping("/employees")
+	public CompletableFuture<ResponseEntity<EmployeeSummary>> create(@RequestBody CreateEmployeeRequest body) {
+		logger.info("ApiController.create");
+		if (isBlank(body.firstname()) || isBlank(body.lastname()) || isBlank(body.departmentDescription())) {
+			throw new IllegalArgumentException("firstname, lastname and departmentDescription are required.");
+		}
+		// built on the servlet thread, the request is not available on the pool threads
+		ServletUriComponentsBuilder location = ServletUriComponentsBuilder.fromCurrentRequest();
+		return asyncService.createEmployeeWithDepartment(body.firstname(), body.lastname(), body.departmentDescription())
+				.thenApply(employee -> {
+					URI uri = location.path("/{id}").buildAndExpand(employee.getId()).toUri();
+					return ResponseEntity.created(uri).body(EmployeeSummary.of(employee));
+				});
+	}
+
+	// the employee and the department are looked up in parallel
+	@PutMapping("/employees/{id}/department")
+	public CompletableFuture<ResponseEntity<Void>> transfer(@PathVariable("id") int id, @RequestBody TransferRequest body) {
+		if (isBlank(body.departmentDescription())) {
+			throw new IllegalArgumentException("departmentDescription is required.");
+		}
+		logger.info("ApiController.transfer employee {} to {}", id, body.departmentDescription());
+		return asyncService.transferEmployeeToDepartment(id, body.departmentDescription()).thenApply(transferred -> {
+			if (!transferred) {
+				throw new NoSuchElementException("Employee " + id + " or department " + body.departmentDescription() + " not found.");
+			}
+			return ResponseEntity.noContent().build();
+		});
+	}
+
+	@PostMapping("/employees/transfer")
+	public CompletableFuture<MutationResponse> transferAll(@RequestBody TransferAllRequest body) {
+		if (body.employeeIds() == null || body.employeeIds().isEmpty() || isBlank(body.departmentDescription())) {
+			throw new IllegalArgumentException("employeeIds and departmentDescription are required.");
+		}
+		logger.info("ApiController.transferAll {} employees to {}", body.employeeIds().size(), body.departmentDescription());
+		return asyncService.transferEmployeesToDepartment(body.employeeIds(), body.departmentDescription())
+				.thenApply(MutationResponse::of);
+	}
+
+	@PatchMapping("/employees/by-lastname/{lastname}")
+	public CompletableFuture<ResponseEntity<MutationResponse>> rename(@PathVariable("lastname") String lastname,
+																						 @RequestParam(value = "all", defaultValue = "false") boolean all,
+																						 @RequestBody RenameRequest body) {
+		logger.info("ApiController.rename from {} to {} all: {}", lastname, body.lastname(), all);
+		if (isBlank(body.lastname())) {
+			throw new IllegalArgumentException("lastname is required.");
+		}
+		CompletableFuture<MutationResponse> response = all
+				? asyncService.renameAllEmployees(lastname, body.lastname()).thenApply(MutationResponse::of)
+				: asyncService.updateEmployeeLastname(lastname, body.lastname()).thenApply(MutationResponse::of);
+		return response.thenApply(EmployeeApiController::found);
+	}
+
+	@DeleteMapping("/employees/by-lastname/{lastname}")
+	public CompletableFuture<ResponseEntity<MutationResponse>> delete(@PathVariable("lastname") String lastname,
+																						 @RequestParam(value = "all", defaultValue = "false") boolean all) {
+		logger.info("ApiController.delete with lastname: {} all: {}", lastname, all);
+		CompletableFuture<MutationResponse> response = all
+				? asyncService.deleteAllEmployeesByLastname(lastname).thenApply(MutationResponse::of)
+				: asyncService.deleteEmployeeByLastname(lastname).thenApply(MutationResponse::of);
+		return response.thenApply(EmployeeApiController::found);
+	}
+
+	@PostMapping(value = "/employees/import", consumes = {"text/csv", "text/plain"})
+	public ImportReport importEmployees(@RequestParam(value = "batchSize", defaultValue = "${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+													Reader body) {
+		logger.info("ApiController.importEmployees with batchSize: {}", batchSize);
+		return businessService.importEmployees(new BufferedReader(body).lines(), batchSize);
+	}
+
+	// the employees are read in chunks while Jackson writes the array
+	@GetMapping("/departments/{description}/employees")
+	public Iterable<EmployeeSummary> findByDepartment(@PathVariable("description") String description,
+																							ServletWebRequest request) {
+		logger.info("ApiController.findByDepartment with description: {}", description);
+		// read while Jackson writes, after the version was taken, not validated while a replica may miss a write
+		DataVersion version = dataVersionService.getDepartmentVersion(description);
+		if (dataVersionService.isSettled(version) && notModified(request, version)) {
+			return null;
+		}
+		return businessService.iterateEmployeeSummariesByDepartmentDescription(description)
+				.orElseThrow(() -> new NoSuchElementException("Department with name " + description + " not found."));
+	}
+
+	@GetMapping("/departments/statistics")
+	public DepartmentStatistics departmentStatistics() {
+		return statisticsService.getStatistics();
+	}
+
+	// lastname and firstname are prefixes, ignoring case and accents
+	@GetMapping("/analytics/count")
+	public CountResponse analyticsCount(@RequestParam(value = "departmentId", required = false) Integer departmentId,
+													@RequestParam(value = "lastname", required = false) String lastname,
+													@RequestParam(value = "firstname", required = false) String firstname) {
+		logger.info("ApiController.analyticsCount departmentId: {} lastname: {} firstname: {}", departmentId, lastname, firstname);
+		return new CountResponse(columnStore().count(filter(departmentId, lastname, firstname)));
+	}
+
+	@GetMapping("/analytics/departments")
+	public DepartmentStatistics analyticsDepartments(@RequestParam(value = "lastname", required = false) String lastname,
+																	 @RequestParam(value = "firstname", required = false) String firstname) {
+		logger.info("ApiController.analyticsDepartments lastname: {} firstname: {}", lastname, firstname);
+		return columnStore().countByDepartment(filter(null, lastname, firstname));
+	}
+
+	@GetMapping("/analytics/lastnames")
+	public Map<String, Long> analyticsLastnames(@RequestParam(value = "departmentId", required = false) Integer departmentId,
+															  @RequestParam(value = "firstname", required = false) String firstname,
+															  @RequestParam(value = "limit", defaultValue = "20") int limit) {
+		logger.info("ApiController.analyticsLastnames departmentId: {} firstname: {} limit: {}", departmentId, firstname, limit);
+		return columnStore().countByLastname(filter(departmentId, null, firstname), limit);
+	}
+
+	@ExceptionHandler(NoSuchElementException.class)
+	public ProblemDetail notFound(NoSuchElementException e) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
+	}
+
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ProblemDetail badRequest(IllegalArgumentException e) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+	}
+
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ProblemDetail conflict(OptimisticLockingFailureException e) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, CONCURRENT_CHANGE);
+	}
+
+	@ExceptionHandler(RejectedExecutionException.class)
+	public ProblemDetail overloaded(RejectedExecutionException e) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, "Too many requests in progress, please try again.");
+	}
+
+	private static ResponseEntity<MutationResponse> found(MutationResponse response) {
+		return response.count() > 0 ? ResponseEntity.ok(response) : ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+	}
+
+	private EmployeeColumnStore columnStore() {
+		if (!columnStore.isReady()) {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The employee analytics are not loaded yet, please try again.");
+		}
+		return columnStore;
+	}
+
+	private static EmployeeColumnStore.Filter filter(Integer departmentId, String lastname, String firstname) {
+		EmployeeColumnStore.Filter filter = EmployeeColumnStore.Filter.all();
+		if (departmentId != null) {
+			filter = filter.departmentId(departmentId);
+		}
+		if (!isBlank(lastname)) {
+			filter = filter.lastname(EmployeeColumnStore.Filter.startsWith(lastname));
+		}
+		if (!isBlank(firstname)) {
+			filter = filter.firstname(EmployeeColumnStore.Filter.startsWith(firstname));
+		}
+		return filter;
+	}
+
+	private static boolean isBlank(String value) {
+		return value == null || value.isBlank();
+	}
+}
@@ -1,21 +1,46 @@
 package ch.bbw.pr.employee.control;
 
 import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
 import ch.bbw.pr.employee.service.BusinessService;
+import ch.bbw.pr.employee.service.DataVersion;
+import ch.bbw.pr.employee.service.DataVersionService;
+import ch.bbw.pr.employee.service.DepartmentStatistics;
+import ch.bbw.pr.employee.service.DepartmentStatisticsService;
+import ch.bbw.pr.employee.service.EmployeeSearchIndex;
 import ch.bbw.pr.employee.service.EmployeeService;
+import ch.bbw.pr.employee.service.ExportFormat;
+import ch.bbw.pr.employee.service.ImportReport;
+import ch.bbw.pr.employee.service.KeysetPage;
+import ch.bbw.pr.employee.service.MultiGetResult;
+import ch.bbw.pr.employee.service.MutationResult;
+import ch.bbw.pr.employee.service.Versioned;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
+import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+
+import static ch.bbw.pr.employee.control.ControllerSupport.CONCURRENT_CHANGE;
+import static ch.bbw.pr.employee.control.ControllerSupport.notModified;
+import static ch.bbw.pr.employee.control.ControllerSupport.served;
 
 /**
  * ViewController
@@ -25,14 +50,24 @@ import java.util.stream.StreamSupport;
 @Controller
 public class ViewController {
 	private static final Logger logger = LoggerFactory.getLogger(ViewController.class);
+	// render=table: the rows are read while the template is written to the response
+	private static final String RENDER_TABLE = "table";
 	private final EmployeeService service;
 	private final BusinessService businessService;
+	private final DepartmentStatisticsService statisticsService;
+	private final DataVersionService dataVersionService;
+	private final EmployeeSearchIndex searchIndex;
 
 	// Constructor injection
 	@Autowired
-	public ViewController(EmployeeService service, BusinessService businessService) {
+	public ViewController(EmployeeService service, BusinessService businessService,
+								 DepartmentStatisticsService statisticsService, DataVersionService dataVersionService,
+								 EmployeeSearchIndex searchIndex) {
 		this.service = service;
 		this.businessService = businessService;
+		this.statisticsService = statisticsService;
+		this.dataVersionService = dataVersionService;
+		this.searchIndex = searchIndex;
 	}
 
 	@GetMapping("/")
@@ -42,9 +77,32 @@ public class ViewController {
 	}
 
 	@GetMapping("/findAll")
-	public String findAll(Model model) {
-		logger.info("Controller.findAll");
-		model.addAttribute("information", service.findAllEmployees());
+	public String findAll(@RequestParam(value = "after", defaultValue = "0") int after,
+								 @RequestParam(value = "size", defaultValue = "${employee.page.default-size:50}") int size,
+								 @RequestParam(value = "render", defaultValue = "text") String render,
+								 ServletWebRequest request,
+								 Model model) {
+		logger.info("Controller.findAll after: {} size: {} render: {}", after, size, render);
+		DataVersion version = dataVersionService.getVersion();
+		if (RENDER_TABLE.equals(render)) {
+			// all employees after the cursor, not only one page; they are read after the version was taken,
+			// but not validated while a replica may still miss a write of this version
+			if (dataVersionService.isSettled(version) && notModified(request, version)) {
+				return null;
+			}
+			model.addAttribute("rows", service.iterateEmployeeSummariesAfter(after));
+			return "index.html";
+		}
+		if (notModified(request, version)) {
+			return null;
+		}
+
+		Versioned<KeysetPage<EmployeeSummary>> page = service.findEmployeeSummariesAfter(after, size);
+		served(request, page.getVersion());
+		model.addAttribute("information", page.getContent().getContent());
+		model.addAttribute("nextAfter", page.getContent().getNextAfter());
+		// the next page link keeps the size the page was read with
+		model.addAttribute("size", EmployeeService.pageSize(size));
 		return "index.html";
 	}
 
@@ -52,7 +110,7 @@ public class ViewController {
 	public String readById(@RequestParam("id") int id, Model model) {
 		logger.info("Controller.readById with id: {}", id);
 
-		Optional<Employee> employee = service.getEmployeeById(id);
+		Optional<EmployeeSummary> employee = service.getEmployeeSummaryById(id);
 		if (employee.isPresent()) {
 			model.addAttribute("information", employee.get());
 		} else {
@@ -61,11 +119,39 @@ public class ViewController {
 		return "index.html";
 	}
 
+	@GetMapping("/readByIds")
+	public String readByIds(@RequestParam("ids") List<Integer> ids, Model model) {
+		logger.info("Controller.readByIds with {} ids", ids.size());
+
+		MultiGetResult<EmployeeSummary> result = service.getEmployeeSummariesByIds(ids);
+		model.addAttribute("information", result.getFound());
+		if (!result.getMissing().isEmpty()) {
+			model.addAttribute("error", "Employees with IDs " + result.getMissing() + " not found.");
+		}
+		return "index.html";
+	}
+
+	@GetMapping("/search")
+	public String search(@RequestParam("q") String query,
+								@RequestParam(value = "limit", defaultValue = "20") int limit,
+								Model model) {
+		logger.info("Controller.search with query: {}", query);
+
+		List<EmployeeSummary> employees = searchIndex.search(query, limit);
+		if (!searchIndex.isReady()) {
+			model.addAttribute("error", "The search index is being built, results may be incomplete.");
+		} else if (employees.isEmpty()) {
+			model.addAttribute("error", "No employees found for " + query + ".");
+		}
+		model.addAttribute("information", employees);
+		return "index.html";
+	}
+
 	@GetMapping("/readByName")
 	public String readByName(@RequestParam("lastname") String lastname, Model model) {
 		logger.info("Controller.readByName with lastname: {}", lastname);
 
-		Optional<Employee> employee = service.getEmployeeByName(lastname);
+		Optional<EmployeeSummary> employee = service.getEmployeeSummaryByName(lastname);
 		if (employee.isPresent()) {
 			model.addAttribute("information", employee.get());
 		} else {
@@ -80,12 +166,10 @@ public class ViewController {
 								Model model) {
 		logger.info("Controller.update from {} to {}", oldlastname, newlastname);
 
-		List<Employee> updatedEmployees = StreamSupport
-				.stream(service.updateEmployeeLastname(oldlastname, newlastname).spliterator(), false)
-				.collect(Collectors.toList());
-
-		if (!updatedEmployees.isEmpty()) {
-			model.addAttribute("information", updatedEmployees);
+		MutationResult result = service.updateEmployeeLastname(oldlastname, newlastname);
+		if (result.getCount() > 0) {
+			model.addAttribute("information", result.getEmployees());
+			model.addAttribute("affected", result.getCount());
 		} else {
 			model.addAttribute("error", "No employee with lastname " + oldlastname + " found.");
 		}
@@ -96,12 +180,40 @@ public class ViewController {
 	public String delete(@RequestParam("lastname") String lastname, Model model) {
 		logger.info("Controller.delete with lastname: {}", lastname);
 
-		List<Employee> remainingEmployees = StreamSupport
-				.stream(service.deleteEmployeeByLastname(lastname).spliterator(), false)
-				.collect(Collectors.toList());
+		MutationResult result = service.deleteEmployeeByLastname(lastname);
+		if (result.getCount() > 0) {
+			model.addAttribute("information", result.getEmployees());
+			model.addAttribute("affected", result.getCount());
+		} else {
+			model.addAttribute("error", "No employee with lastname " + lastname + " found.");
+		}
+		return "index.html";
+	}
+
+	@GetMapping("/updateAll")
+	public String updateAll(@RequestParam("oldlastname") String oldlastname,
+									@RequestParam("newlastname") String newlastname,
+									Model model) {
+		logger.info("Controller.updateAll from {} to {}", oldlastname, newlastname);
 
-		if (!remainingEmployees.isEmpty()) {
-			model.addAttribute("information", remainingEmployees);
+		int count = service.renameAllEmployees(oldlastname, newlastname);
+		if (count > 0) {
+			model.addAttribute("information", count + " employee(s) renamed to " + newlastname + ".");
+			model.addAttribute("affected", count);
+		} else {
+			model.addAttribute("error", "No employee with lastname " + oldlastname + " found.");
+		}
+		return "index.html";
+	}
+
+	@GetMapping("/deleteAll")
+	public String deleteAll(@RequestParam("lastname") String lastname, Model model) {
+		logger.info("Controller.deleteAll with lastname: {}", lastname);
+
+		int count = service.deleteAllEmployeesByLastname(lastname);
+		if (count > 0) {
+			model.addAttribute("information", count + " employee(s) deleted.");
+			model.addAttribute("affected", count);
 		} else {
 			model.addAttribute("error", "No employee with lastname " + lastname + " found.");
 		}
@@ -125,10 +237,33 @@ public class ViewController {
 	}
 
 	@GetMapping("/findEmployeesByDepartment")
-	public String findEmployeesByDepartment(@RequestParam("departmentDescription") String departmentDescription, Model model) {
-		logger.info("Controller.findEmployeesByDepartment with departmentDescription: {}", departmentDescription);
+	public String findEmployeesByDepartment(@RequestParam("departmentDescription") String departmentDescription,
+														 @RequestParam(value = "render", defaultValue = "text") String render,
+														 ServletWebRequest request,
+														 Model model) {
+		logger.info("Controller.findEmployeesByDepartment with departmentDescription: {} render: {}",
+				departmentDescription, render);
+		DataVersion version = dataVersionService.getDepartmentVersion(departmentDescription);
+		if (RENDER_TABLE.equals(render)) {
+			if (dataVersionService.isSettled(version) && notModified(request, version)) {
+				return null;
+			}
+			Optional<Iterable<EmployeeSummary>> rows =
+					businessService.iterateEmployeeSummariesByDepartmentDescription(departmentDescription);
+			if (rows.isPresent()) {
+				model.addAttribute("rows", rows.get());
+			} else {
+				model.addAttribute("error", "No employees found for department " + departmentDescription + ".");
+			}
+			return "index.html";
+		}
 
-		List<Employee> employees = businessService.findEmployeesByDepartmentDescription(departmentDescription);
+		if (notModified(request, version)) {
+			return null;
+		}
+		Versioned<List<EmployeeSummary>> result = businessService.findEmployeeSummariesByDepartmentDescription(departmentDescription);
+		served(request, result.getVersion());
+		List<EmployeeSummary> employees = result.getContent();
 		if (!employees.isEmpty()) {
 			model.addAttribute("information", employees);
 		} else {
@@ -153,4 +288,77 @@ public class ViewController {
 		}
 		return "index.html";
 	}
+
+	@PostMapping(value = "/importEmployees", consumes = {"text/csv", "text/plain"})
+	public String importEmployees(@RequestParam(value = "batchSize", defaultValue = "${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+											Reader body,
+											Model model) {
+		logger.info("Controller.importEmployees with batchSize: {}", batchSize);
+
+		try {
+			ImportReport report = businessService.importEmployees(new BufferedReader(body).lines(), batchSize);
+			model.addAttribute("information", report);
+		} catch (IllegalArgumentException | NoSuchElementException e) {
+			model.addAttribute("error", "Import failed: " + e.getMessage());
+		}
+		return "index.html";
+	}
+
+	@GetMapping("/transferEmployees")
+	public String transferEmployees(@RequestParam("employeeIds") List<Integer> employeeIds,
+											  @RequestParam("newDepartmentDescription") String newDepartmentDescription,
+											  Model model) {
+		logger.info("Controller.transferEmployees with employeeIds: {} to newDepartmentDescription: {}",
+				employeeIds, newDepartmentDescription);
+
+		try {
+			int count = businessService.transferEmployeesToDepartment(employeeIds, newDepartmentDescription);
+			model.addAttribute("information", count + " employee(s) transferred.");
+			model.addAttribute("affected", count);
+		} catch (NoSuchElementException e) {
+			model.addAttribute("error", e.getMessage());
+		}
+		return "index.html";
+	}
+
+	@GetMapping("/departmentStatistics")
+	public String departmentStatistics(Model model) {
+		logger.info("Controller.departmentStatistics");
+
+		model.addAttribute("information", statisticsService.getStatistics());
+		return "index.html";
+	}
+
+	// same statistics as JSON for dashboards (Accept: application/json)
+	@GetMapping(value = "/departmentStatistics", produces = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseBody
+	public DepartmentStatistics departmentStatisticsJson() {
+		return statisticsService.getStatistics();
+	}
+
+	@GetMapping("/export")
+	public void export(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+							 HttpServletResponse response) throws IOException {
+		logger.info("Controller.export as {}", format);
+
+		ExportFormat exportFormat;
+		try {
+			exportFormat = ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown export format " + format + ".");
+			return;
+		}
+		response.setContentType(exportFormat.getContentType());
+		response.setCharacterEncoding("UTF-8");
+		response.setHeader("Content-Disposition", "attachment; filename=employees." + exportFormat.getFileExtension());
+		service.exportEmployees(exportFormat, response.getWriter());
+	}
+
+	// an employee changed concurrently, also after the retries of OptimisticRetry
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public String conflict(OptimisticLockingFailureException e, Model model) {
+		logger.info("Controller.conflict: {}", e.getMessage());
+		model.addAttribute("error", CONCURRENT_CHANGE);
+		return "index.html";
+	}
 }
\ No newline at end of file
@@ -9,7 +9,7 @@ import lombok.*;
  * @version 21.12.2024
  */
 @Entity
-@Table(name = "department")
+@Table(name = "department", indexes = @Index(name = "department_descriptionidx", columnList = "description", unique = true))
 @NamedQuery(name = "Department.findAll", query = "FROM Department")
 @Data
 @AllArgsConstructor
@@ -17,7 +17,8 @@ import lombok.*;
 @Builder
 public class Department {
    @Id
-   @GeneratedValue(strategy = GenerationType.IDENTITY)
+   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "department_seq")
+   @SequenceGenerator(name = "department_seq", sequenceName = "department_seq", allocationSize = 50)
    @Column(name = "id", unique = true, nullable = false)
    private int id;
 
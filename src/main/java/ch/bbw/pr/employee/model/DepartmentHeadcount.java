@@ -0,0 +1,21 @@
+package ch.bbw.pr.employee.model;
+
+import lombok.Value;
+
+/**
+ * DepartmentHeadcount
+ * Number of employees of a department, result of the grouped aggregate query.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Value
+public class DepartmentHeadcount {
+   int departmentId;
+   String description;
+   long headcount;
+
+   @Override
+   public String toString() {
+      return description + ": " + headcount;
+   }
+}
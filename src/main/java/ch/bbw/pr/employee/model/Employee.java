@@ -11,7 +11,9 @@ import javax.validation.constraints.Size;
  * @version 21.12.2024
  */
 @Entity
-@Table(name = "employee")
+@Table(name = "employee", indexes = {
+      @Index(name = "departmentidx", columnList = "departmentidfs"),
+      @Index(name = "employee_lastnameidx", columnList = "lastname")})
 @NamedQuery(name = "Employee.findAll", query = "FROM Employee")
 @Data
 @AllArgsConstructor
@@ -19,7 +21,9 @@ import javax.validation.constraints.Size;
 @Builder
 public class Employee {
    @Id
-   @GeneratedValue(strategy=GenerationType.IDENTITY)
+   // pooled sequence ids allow Hibernate to batch inserts, the sequence increment must match allocationSize
+   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+   @SequenceGenerator(name = "employee_seq", sequenceName = "employee_seq", allocationSize = 50)
    @Column(name = "id", unique = true, nullable = false)
    private int id;
 
@@ -33,9 +37,16 @@ public class Employee {
    @Column(name = "lastname", length = 50, nullable = false)
    private String lastname;
 
-   @ManyToOne
+   @ManyToOne(fetch = FetchType.LAZY)
    @JoinColumn(name = "departmentidfs")
    @EqualsAndHashCode.Exclude
    @ToString.Exclude
    private Department department;
+
+   // optimistic locking, an update of a concurrently changed employee fails instead of overwriting it
+   @Version
+   @Column(name = "version", nullable = false)
+   @EqualsAndHashCode.Exclude
+   @ToString.Exclude
+   private int version;
 }
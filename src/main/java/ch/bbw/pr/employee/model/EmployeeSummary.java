@@ -0,0 +1,26 @@
+package ch.bbw.pr.employee.model;
+
+import lombok.Value;
+
+/**
+ * EmployeeSummary
+ * Read-only projection of an employee with the description of its department.
+ * Used to render the views without loading managed entities.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Value
+public class EmployeeSummary {
+   int id;
+   String firstname;
+   String lastname;
+   Integer departmentId;
+   String departmentDescription;
+
+   public static EmployeeSummary of(Employee employee) {
+      Department department = employee.getDepartment();
+      return new EmployeeSummary(employee.getId(), employee.getFirstname(), employee.getLastname(),
+            department == null ? null : department.getId(),
+            department == null ? null : department.getDescription());
+   }
+}
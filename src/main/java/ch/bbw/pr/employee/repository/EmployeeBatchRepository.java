@@ -0,0 +1,21 @@
+package ch.bbw.pr.employee.repository;
+
+import ch.bbw.pr.employee.model.Employee;
+
+/**
+ * EmployeeBatchRepository
+ * Custom repository fragment for batch processing of employees.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+public interface EmployeeBatchRepository {
+   /**
+    * Flush pending inserts as JDBC batch and clear the persistence context.
+    */
+   void flushAndClear();
+
+   /**
+    * Remove the employee from the persistence context, used while streaming large results.
+    */
+   void detach(Employee employee);
+}
@@ -0,0 +1,27 @@
+package ch.bbw.pr.employee.repository;
+
+import ch.bbw.pr.employee.model.Employee;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * EmployeeBatchRepositoryImpl
+ * Implementation of the EmployeeBatchRepository fragment, picked up by Spring Data by its name.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+class EmployeeBatchRepositoryImpl implements EmployeeBatchRepository {
+   @PersistenceContext
+   private EntityManager entityManager;
+
+   @Override
+   public void flushAndClear() {
+      entityManager.flush();
+      entityManager.clear();
+   }
+
+   @Override
+   public void detach(Employee employee) {
+      entityManager.detach(employee);
+   }
+}
@@ -1,11 +1,25 @@
 package ch.bbw.pr.employee.repository;
 
 import ch.bbw.pr.employee.model.Department;
+import ch.bbw.pr.employee.model.DepartmentHeadcount;
 import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * EmployeeRepository
@@ -13,8 +27,108 @@ import java.util.List;
  * @version 21.12.2024
  */
 @Repository                                                //class, id-Typ
-public interface EmployeeRepository extends CrudRepository<Employee, Integer>{
+public interface EmployeeRepository extends CrudRepository<Employee, Integer>, EmployeeBatchRepository {
+   // list queries fetch the (lazy) department in the same select, no 1+N queries
+   @Override
+   @EntityGraph(attributePaths = "department")
+   Iterable<Employee> findAll();
+
+   @EntityGraph(attributePaths = "department")
    List<Employee> findByLastname(String lastname);
+
+   // like findById, but with the department loaded for use outside of the transaction
+   @EntityGraph(attributePaths = "department")
+   Optional<Employee> findWithDepartmentById(int id);
+
+   @EntityGraph(attributePaths = "department")
    List<Employee> findByDepartment(Department department);
+
+   @EntityGraph(attributePaths = "department")
+   List<Employee> findByIdGreaterThanOrderByIdAsc(int id, Limit limit);
+
+   int STREAM_FETCH_SIZE = 1000;
+
+   // read-only projections for the views, no managed entities and no dirty checking
+   String SUMMARY_QUERY = "select new ch.bbw.pr.employee.model.EmployeeSummary(e.id, e.firstname, e.lastname, d.id, d.description) "
+         + "from Employee e left join e.department d ";
+
+   @Transactional(readOnly = true)
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+   @Query(SUMMARY_QUERY + "where e.id > :after order by e.id")
+   List<EmployeeSummary> findSummariesAfter(@Param("after") int afterId, Limit limit);
+
+   @Transactional(readOnly = true)
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+   @Query(SUMMARY_QUERY + "where e.id = :id")
+   Optional<EmployeeSummary> findSummaryById(@Param("id") int id);
+
+   @Transactional(readOnly = true)
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+   @Query(SUMMARY_QUERY + "where e.id in :ids")
+   List<EmployeeSummary> findSummariesByIdIn(@Param("ids") Collection<Integer> ids);
+
+   @Transactional(readOnly = true)
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+   @Query(SUMMARY_QUERY + "where e.lastname = :lastname order by e.id")
+   List<EmployeeSummary> findSummariesByLastname(@Param("lastname") String lastname);
+
+   @Transactional(readOnly = true)
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+   @Query(SUMMARY_QUERY + "where d.id = :departmentId order by e.id")
+   List<EmployeeSummary> findSummariesByDepartmentId(@Param("departmentId") int departmentId);
+
+   @Transactional(readOnly = true)
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+   @Query(SUMMARY_QUERY + "where d.id = :departmentId and e.id > :after order by e.id")
+   List<EmployeeSummary> findSummariesByDepartmentIdAfter(@Param("departmentId") int departmentId,
+                                                          @Param("after") int afterId, Limit limit);
+
+   // headcounts for the department statistics, departments without employees are included
+   @Transactional(readOnly = true)
+   @Query("select new ch.bbw.pr.employee.model.DepartmentHeadcount(d.id, d.description, count(e.id)) "
+         + "from Department d left join Employee e on e.department = d group by d.id, d.description order by d.id")
+   List<DepartmentHeadcount> countPerDepartment();
+
+   @Transactional(readOnly = true)
+   long countByDepartmentIsNull();
+
+   /**
+    * All employees with their department ordered by id, read with a JDBC fetch size instead of
+    * loading the whole result. Must be consumed and closed within a transaction.
+    */
+   @QueryHints({
+         @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+         @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+   })
+   @Query("select e from Employee e left join fetch e.department order by e.id")
+   Stream<Employee> streamAll();
+
+   /**
+    * All employees as summaries ordered by id, streamed like streamAll but without entities.
+    * Must be consumed and closed within a transaction.
+    */
+   @QueryHints({
+         @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+         @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+   })
+   @Query(SUMMARY_QUERY + "order by e.id")
+   Stream<EmployeeSummary> streamSummaries();
+
+   // set-based mutations, executed as one UPDATE/DELETE statement and returning the affected rows,
+   // "versioned" increments the version, so a concurrent read-modify-write of these employees fails
+   @Transactional
+   @Modifying(flushAutomatically = true, clearAutomatically = true)
+   @Query("update versioned Employee e set e.lastname = :newLastname where e.lastname = :oldLastname")
+   int renameAllByLastname(@Param("oldLastname") String oldLastname, @Param("newLastname") String newLastname);
+
+   @Transactional
+   @Modifying(flushAutomatically = true, clearAutomatically = true)
+   @Query("delete from Employee e where e.lastname = :lastname")
+   int deleteAllByLastname(@Param("lastname") String lastname);
+
+   @Transactional
+   @Modifying(flushAutomatically = true, clearAutomatically = true)
+   @Query("update versioned Employee e set e.department = :department where e.id in :ids")
+   int moveAllToDepartment(@Param("ids") Collection<Integer> ids, @Param("department") Department department);
 }
 
@@ -0,0 +1,163 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.Department;
+import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * AsyncBusinessService
+ * CompletableFuture variants of the EmployeeService and BusinessService operations, executed on a
+ * bounded pool of pool-size threads, so at most pool-size connections are used by asynchronous calls.
+ * Independent lookups run in parallel. When the pool and its queue of queue-capacity tasks are full,
+ * the returned future fails with a RejectedExecutionException instead of queueing without limit.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Service
+public class AsyncBusinessService {
+   private static final Logger logger = LoggerFactory.getLogger(AsyncBusinessService.class);
+
+   private final EmployeeService employeeService;
+   private final BusinessService businessService;
+   private final DepartmentService departmentService;
+   private final ThreadPoolExecutor executor;
+   private final LongAdder rejected = new LongAdder();
+
+   @Autowired
+   public AsyncBusinessService(EmployeeService employeeService, BusinessService businessService,
+                               DepartmentService departmentService,
+                               @Value("${employee.async.pool-size:8}") int poolSize,
+                               @Value("${employee.async.queue-capacity:100}") int queueCapacity) {
+      this.employeeService = employeeService;
+      this.businessService = businessService;
+      this.departmentService = departmentService;
+      AtomicInteger threads = new AtomicInteger();
+      this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+               Thread thread = new Thread(runnable, "employee-async-" + threads.incrementAndGet());
+               thread.setDaemon(true);
+               return thread;
+            });
+   }
+
+   public CompletableFuture<Optional<EmployeeSummary>> getEmployeeSummaryById(int id) {
+      return async(() -> employeeService.getEmployeeSummaryById(id));
+   }
+
+   public CompletableFuture<Optional<EmployeeSummary>> getEmployeeSummaryByName(String lastname) {
+      return async(() -> employeeService.getEmployeeSummaryByName(lastname));
+   }
+
+   public CompletableFuture<Versioned<KeysetPage<EmployeeSummary>>> findEmployeeSummariesAfter(int afterId, int size) {
+      return async(() -> employeeService.findEmployeeSummariesAfter(afterId, size));
+   }
+
+   public CompletableFuture<Versioned<List<EmployeeSummary>>> findEmployeeSummariesByDepartmentDescription(String departmentDescription) {
+      return async(() -> businessService.findEmployeeSummariesByDepartmentDescription(departmentDescription));
+   }
+
+   public CompletableFuture<Employee> createEmployeeWithDepartment(String firstname, String lastname, String departmentDescription) {
+      return async(() -> businessService.createEmployeeWithDepartment(firstname, lastname, departmentDescription));
+   }
+
+   public CompletableFuture<MutationResult> updateEmployeeLastname(String oldlastname, String newlastname) {
+      return async(() -> employeeService.updateEmployeeLastname(oldlastname, newlastname));
+   }
+
+   public CompletableFuture<MutationResult> deleteEmployeeByLastname(String lastname) {
+      return async(() -> employeeService.deleteEmployeeByLastname(lastname));
+   }
+
+   public CompletableFuture<Integer> renameAllEmployees(String oldlastname, String newlastname) {
+      return async(() -> employeeService.renameAllEmployees(oldlastname, newlastname));
+   }
+
+   public CompletableFuture<Integer> deleteAllEmployeesByLastname(String lastname) {
+      return async(() -> employeeService.deleteAllEmployeesByLastname(lastname));
+   }
+
+   public CompletableFuture<Integer> transferEmployeesToDepartment(Collection<Integer> employeeIds, String newDepartmentDescription) {
+      return async(() -> businessService.transferEmployeesToDepartment(employeeIds, newDepartmentDescription));
+   }
+
+   /**
+    * Transfer an employee to another department. The employee and the department are looked up in parallel,
+    * the transfer is saved as soon as both are known. If the employee was changed after it was read,
+    * BusinessService.transferEmployeeToDepartment reads it again and retries.
+    */
+   public CompletableFuture<Boolean> transferEmployeeToDepartment(int employeeId, String newDepartmentDescription) {
+      logger.info("AsyncBusinessService.transferEmployeeToDepartment");
+      CompletableFuture<Optional<Employee>> employee = async(() -> employeeService.getEmployeeWithDepartmentById(employeeId));
+      CompletableFuture<Optional<Department>> department = async(() -> departmentService.findByDescription(newDepartmentDescription));
+      return employee.thenCombine(department, TransferLookup::new)
+            .thenCompose(lookup -> async(() -> {
+               if (lookup.employee().isEmpty() || lookup.department().isEmpty()) {
+                  logger.error("AsyncBusinessService.transferEmployeeToDepartment transfer fails");
+                  return false;
+               }
+               try {
+                  employeeService.transferEmployee(lookup.employee().get(), lookup.department().get());
+                  return true;
+               } catch (OptimisticLockingFailureException e) {
+                  return businessService.transferEmployeeToDepartment(employeeId, newDepartmentDescription);
+               }
+            }));
+   }
+
+   public int getQueueSize() {
+      return executor.getQueue().size();
+   }
+
+   public int getActiveCount() {
+      return executor.getActiveCount();
+   }
+
+   public long getRejected() {
+      return rejected.sum();
+   }
+
+   @PreDestroy
+   public void shutdown() {
+      executor.shutdown();
+      try {
+         if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+         }
+      } catch (InterruptedException e) {
+         executor.shutdownNow();
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   private <T> CompletableFuture<T> async(Supplier<T> operation) {
+      try {
+         return CompletableFuture.supplyAsync(operation, executor);
+      } catch (RejectedExecutionException e) {
+         rejected.increment();
+         logger.warn("AsyncBusinessService: executor is full, " + executor.getQueue().size() + " tasks waiting");
+         return CompletableFuture.failedFuture(e);
+      }
+   }
+
+   private record TransferLookup(Optional<Employee> employee, Optional<Department> department) {
+   }
+}
@@ -2,15 +2,24 @@ package ch.bbw.pr.employee.service;
 
 import ch.bbw.pr.employee.model.Department;
 import ch.bbw.pr.employee.model.Employee;
-import ch.bbw.pr.employee.repository.DepartmentRepository;
+import ch.bbw.pr.employee.model.EmployeeSummary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
 /**
  * BusinessService
@@ -23,26 +32,39 @@ public class BusinessService {
    private static final Logger logger = LoggerFactory.getLogger(BusinessService.class);
 
    private final EmployeeService employeeService;
-   private final DepartmentRepository departmentRepo;
+   private final DepartmentService departmentService;
+   private final OptimisticRetry retry;
+   private final EmployeeGroupCommit groupCommit;
+   private final DataVersionService dataVersions;
+   private final SingleFlight reads = new SingleFlight();
 
    @Autowired
-   public BusinessService(EmployeeService employeeService, DepartmentRepository departmentRepo) {
+   public BusinessService(EmployeeService employeeService, DepartmentService departmentService,
+                          OptimisticRetry retry, EmployeeGroupCommit groupCommit, DataVersionService dataVersions) {
       this.employeeService = employeeService;
-      this.departmentRepo = departmentRepo;
+      this.departmentService = departmentService;
+      this.retry = retry;
+      this.groupCommit = groupCommit;
+      this.dataVersions = dataVersions;
    }
 
    /**
     * Create a new employee and assign to the specified department by name.
+    * With group commit enabled the employee is inserted together with concurrently created employees,
+    * the caller waits for the commit without holding a transaction.
     */
    public Employee createEmployeeWithDepartment(String firstname, String lastname, String departmentDescription) {
       logger.info("BusinessService.createEmployeeWithDepartment");
-      Optional<Department> departmentOpt = departmentRepo.findByDescription(departmentDescription);
+      Optional<Department> departmentOpt = departmentService.findByDescription(departmentDescription);
 
       if (departmentOpt.isPresent()) {
          Employee employee = new Employee();
          employee.setFirstname(firstname);
          employee.setLastname(lastname);
          employee.setDepartment(departmentOpt.get());
+         if (groupCommit.isEnabled()) {
+            return awaitCommit(groupCommit.submit(employee));
+         }
          return employeeService.saveEmployee(employee);
       } else {
          logger.warn("BusinessService.createEmployeeWithDepartment department not found: " + departmentDescription);
@@ -53,9 +75,10 @@ public class BusinessService {
    /**
     * Find employees by department description.
     */
+   @Transactional(readOnly = true)
    public List<Employee> findEmployeesByDepartmentDescription(String departmentDescription) {
       logger.info("BusinessService.findEmployeesByDepartmentDescription");
-      Optional<Department> department = departmentRepo.findByDescription(departmentDescription);
+      Optional<Department> department = departmentService.findByDescription(departmentDescription);
       if (department.isPresent()) {
          return employeeService.findEmployeesByDepartment(department.get());
       }
@@ -64,20 +87,109 @@ public class BusinessService {
    }
 
    /**
-    * Transfer an employee to another department.
+    * Find employees by department description as read-only projection, with the version they were read at.
+    * Concurrent calls for the same department and version share one execution.
+    */
+   public Versioned<List<EmployeeSummary>> findEmployeeSummariesByDepartmentDescription(String departmentDescription) {
+      logger.info("BusinessService.findEmployeeSummariesByDepartmentDescription");
+      DataVersion version = dataVersions.getDepartmentVersion(departmentDescription);
+      return reads.execute("findEmployeeSummariesByDepartmentDescription", List.of(departmentDescription, version.getEtag()), () -> {
+         Optional<Department> department = departmentService.findByDescription(departmentDescription);
+         if (department.isPresent()) {
+            return employeeService.findEmployeeSummariesByDepartment(department.get());
+         }
+         logger.warn("BusinessService.findEmployeeSummariesByDepartmentDescription no employees found");
+         return new Versioned<>(List.<EmployeeSummary>of(), version);
+      });
+   }
+
+   /**
+    * Employees of a department as summaries that are read in chunks while iterated,
+    * see EmployeeService.iterateEmployeeSummariesByDepartment. Empty when the department does not exist.
+    */
+   public Optional<Iterable<EmployeeSummary>> iterateEmployeeSummariesByDepartmentDescription(String departmentDescription) {
+      logger.info("BusinessService.iterateEmployeeSummariesByDepartmentDescription");
+      return departmentService.findByDescription(departmentDescription)
+            .map(employeeService::iterateEmployeeSummariesByDepartment);
+   }
+
+   /**
+    * Transfer an employee to another department. The employee is read and saved in one transaction,
+    * which is repeated when the employee was changed concurrently.
     */
    public boolean transferEmployeeToDepartment(int employeeId, String newDepartmentDescription) {
       logger.info("BusinessService.transferEmployeeToDepartment");
-      Optional<Employee> employeeOpt = employeeService.getEmployeeById(employeeId);
-      Optional<Department> departmentOpt = departmentRepo.findByDescription(newDepartmentDescription);
+      return retry.execute("transferEmployeeToDepartment", () -> {
+         Optional<Employee> employeeOpt = employeeService.getEmployeeById(employeeId);
+         Optional<Department> departmentOpt = departmentService.findByDescription(newDepartmentDescription);
 
-      if (employeeOpt.isPresent() && departmentOpt.isPresent()) {
-         Employee employee = employeeOpt.get();
-         employee.setDepartment(departmentOpt.get());
-         employeeService.saveEmployee(employee);
-         return true;
+         if (employeeOpt.isPresent() && departmentOpt.isPresent()) {
+            employeeService.transferEmployee(employeeOpt.get(), departmentOpt.get());
+            return true;
+         }
+         logger.error("BusinessService.transferEmployeeToDepartment transfer fails");
+         return false;
+      });
+   }
+
+   /**
+    * Transfer several employees to another department with one UPDATE statement.
+    * Returns the number of transferred employees, unknown ids are ignored.
+    */
+   public int transferEmployeesToDepartment(Collection<Integer> employeeIds, String newDepartmentDescription) {
+      logger.info("BusinessService.transferEmployeesToDepartment");
+      Department department = departmentService.findByDescription(newDepartmentDescription)
+            .orElseThrow(() -> new NoSuchElementException("Department with name " + newDepartmentDescription + " not found."));
+      return employeeService.moveEmployeesToDepartment(employeeIds, department);
+   }
+
+   /**
+    * Import employees from CSV lines "firstname,lastname[,department description]".
+    * The import is rolled back completely if a line is invalid or a department does not exist.
+    */
+   public ImportReport importEmployees(Stream<String> csvLines, int batchSize) {
+      logger.info("BusinessService.importEmployees");
+      return employeeService.importEmployees(csvLines
+            .filter(line -> !line.isBlank())
+            .map(this::parseEmployee), batchSize);
+   }
+
+   public long getExecutedReads() {
+      return reads.getExecuted();
+   }
+
+   public long getCoalescedReads() {
+      return reads.getCoalesced();
+   }
+
+   private Employee awaitCommit(CompletableFuture<Employee> commit) {
+      Duration timeout = groupCommit.getTimeout();
+      try {
+         return commit.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).join();
+      } catch (CompletionException e) {
+         if (e.getCause() instanceof RuntimeException cause) {
+            throw cause;
+         }
+         if (e.getCause() instanceof TimeoutException) {
+            throw new QueryTimeoutException("Employee not committed within " + timeout + ", it may still be saved", e.getCause());
+         }
+         throw e;
+      }
+   }
+
+   private Employee parseEmployee(String line) {
+      String[] fields = line.split(",", -1);
+      if (fields.length < 2 || fields.length > 3 || fields[0].isBlank() || fields[1].isBlank()) {
+         throw new IllegalArgumentException("Invalid import line: " + line);
+      }
+      Employee employee = new Employee();
+      employee.setFirstname(fields[0].trim());
+      employee.setLastname(fields[1].trim());
+      if (fields.length == 3 && !fields[2].isBlank()) {
+         String departmentDescription = fields[2].trim();
+         employee.setDepartment(departmentService.findByDescription(departmentDescription)
+               .orElseThrow(() -> new NoSuchElementException("Department with name " + departmentDescription + " not found.")));
       }
-      logger.error("BusinessService.transferEmployeeToDepartment transfer fails");
-      return false;
+      return employee;
    }
 }
@@ -0,0 +1,16 @@
+package ch.bbw.pr.employee.service;
+
+import lombok.Value;
+
+/**
+ * DataVersion
+ * Validators of the data behind a page: an ETag that changes with every write
+ * and the time of the last write in epoch milliseconds.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Value
+public class DataVersion {
+   String etag;
+   long lastModified;
+}
@@ -0,0 +1,116 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.Department;
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * DataVersionService
+ * Version counters of the employee data for conditional GET requests. Every committed
+ * EmployeeChangedEvent bumps the global version and the versions of the departments involved,
+ * a bulk event bumps all departments. The ETags contain the start time of the application,
+ * so they do not repeat after a restart. Only writes of this application instance are counted.
+ * A version is only a valid validator for data read after it was taken: pages are read with read,
+ * which uses the primary while a read replica may still miss a counted write.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Service
+public class DataVersionService {
+   private final DepartmentService departmentService;
+   private final TransactionTemplate primary;
+   // zero without read replicas, every version is visible at once
+   private final long replicaMaxLagMillis;
+   private final long startedAt = System.currentTimeMillis();
+   private final AtomicLong version = new AtomicLong();
+   // version of the last bulk change, applies to every department
+   private final AtomicLong bulkVersion = new AtomicLong();
+   private final ConcurrentHashMap<Integer, Long> departmentVersions = new ConcurrentHashMap<>();
+   private volatile long lastModified = startedAt;
+
+   @Autowired
+   public DataVersionService(DepartmentService departmentService, PlatformTransactionManager transactionManager,
+                             @Value("${datasource.replicas.enabled:false}") boolean replicas,
+                             @Value("${datasource.replicas.max-lag:5s}") Duration replicaMaxLag) {
+      this.departmentService = departmentService;
+      // read-write, so the LazyConnectionDataSourceProxy takes the connection from the primary
+      this.primary = new TransactionTemplate(transactionManager);
+      this.replicaMaxLagMillis = replicas ? replicaMaxLag.toMillis() : 0;
+   }
+
+   /**
+    * Version of all employees.
+    */
+   public DataVersion getVersion() {
+      return new DataVersion(startedAt + "-" + version.get(), lastModified);
+   }
+
+   /**
+    * Version of the employees of a department, the global version for an unknown department.
+    */
+   public DataVersion getDepartmentVersion(String departmentDescription) {
+      Optional<Department> department = departmentService.findByDescription(departmentDescription);
+      if (department.isEmpty()) {
+         return getVersion();
+      }
+      return getDepartmentVersion(department.get().getId());
+   }
+
+   /**
+    * Version of the employees of the department with this id.
+    */
+   public DataVersion getDepartmentVersion(int departmentId) {
+      long departmentVersion = Math.max(bulkVersion.get(), departmentVersions.getOrDefault(departmentId, 0L));
+      return new DataVersion(startedAt + "-d" + departmentId + "-" + departmentVersion, lastModified);
+   }
+
+   /**
+    * True when every write counted in the version is visible on the read replicas,
+    * always without replicas. Assumes the replicas lag at most max-lag behind the primary.
+    */
+   public boolean isSettled(DataVersion version) {
+      return System.currentTimeMillis() - version.getLastModified() >= replicaMaxLagMillis;
+   }
+
+   /**
+    * Run a read that is validated with version, which must be taken before the read.
+    * A version that is not settled is read in a read-write transaction on the primary,
+    * so the result contains every write counted in the version. Inside a transaction the read runs in it.
+    */
+   public <T> Versioned<T> read(DataVersion version, Supplier<T> read) {
+      if (isSettled(version) || TransactionSynchronizationManager.isActualTransactionActive()) {
+         return new Versioned<>(read.get(), version);
+      }
+      return new Versioned<>(primary.execute(status -> read.get()), version);
+   }
+
+   @TransactionalEventListener(fallbackExecution = true)
+   public void onEmployeeChanged(EmployeeChangedEvent event) {
+      long changed = version.incrementAndGet();
+      if (event.isBulk()) {
+         bulkVersion.accumulateAndGet(changed, Math::max);
+      } else {
+         bump(event.getPrevious(), changed);
+         bump(event.getCurrent(), changed);
+      }
+      lastModified = System.currentTimeMillis();
+   }
+
+   private void bump(EmployeeSummary employee, long changed) {
+      if (employee != null && employee.getDepartmentId() != null) {
+         departmentVersions.merge(employee.getDepartmentId(), changed, Math::max);
+      }
+   }
+}
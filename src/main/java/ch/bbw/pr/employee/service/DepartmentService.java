@@ -0,0 +1,118 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.Department;
+import ch.bbw.pr.employee.repository.DepartmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DepartmentService
+ * Access to the departments with a bounded in-memory cache for the lookup by description.
+ * The department table is tiny and rarely changes, so every save or delete simply
+ * invalidates the whole cache. Cached departments are shared and must not be modified.
+ * No lock is held during the database query, so virtual threads are not pinned.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Service
+public class DepartmentService {
+   private static final Logger logger = LoggerFactory.getLogger(DepartmentService.class);
+
+   private final DepartmentRepository departmentRepo;
+   private final long ttlNanos;
+   private final int maxSize;
+   private final ConcurrentHashMap<String, CacheEntry> cache = new ConcurrentHashMap<>();
+   // incremented on every invalidation, a load started before is not cached anymore
+   private final AtomicLong generation = new AtomicLong();
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+
+   @Autowired
+   public DepartmentService(DepartmentRepository departmentRepo,
+                            @Value("${department.cache.ttl:5m}") Duration ttl,
+                            @Value("${department.cache.max-size:1000}") int maxSize) {
+      this.departmentRepo = departmentRepo;
+      this.ttlNanos = ttl.toNanos();
+      this.maxSize = maxSize;
+   }
+
+   /**
+    * Find a department by its description, served from the cache when possible.
+    * Unknown descriptions are not cached.
+    */
+   public Optional<Department> findByDescription(String description) {
+      long now = System.nanoTime();
+      CacheEntry entry = cache.get(description);
+      if (entry != null && now - entry.expiresAt < 0) {
+         hits.increment();
+         return Optional.of(entry.department);
+      }
+      misses.increment();
+      long loadGeneration = generation.get();
+      Optional<Department> department = departmentRepo.findByDescription(description);
+      if (department.isPresent() && ttlNanos > 0) {
+         evictIfFull(now);
+         cache.put(description, new CacheEntry(department.get(), now + ttlNanos));
+         if (generation.get() != loadGeneration) {
+            // invalidated while loading, the loaded department may be stale
+            cache.remove(description);
+         }
+      }
+      return department;
+   }
+
+   public Department saveDepartment(Department department) {
+      logger.info("DepartmentService.saveDepartment: " + department);
+      Department saved = departmentRepo.save(department);
+      invalidateCache();
+      return saved;
+   }
+
+   public void deleteDepartment(Department department) {
+      logger.info("DepartmentService.deleteDepartment: " + department);
+      departmentRepo.delete(department);
+      invalidateCache();
+   }
+
+   public void invalidateCache() {
+      generation.incrementAndGet();
+      cache.clear();
+   }
+
+   public long getCacheHits() {
+      return hits.sum();
+   }
+
+   public long getCacheMisses() {
+      return misses.sum();
+   }
+
+   public int getCacheSize() {
+      return cache.size();
+   }
+
+   private void evictIfFull(long now) {
+      if (cache.size() < maxSize) {
+         return;
+      }
+      cache.values().removeIf(entry -> now - entry.expiresAt >= 0);
+      Iterator<String> keys = cache.keySet().iterator();
+      while (cache.size() >= maxSize && keys.hasNext()) {
+         keys.next();
+         keys.remove();
+      }
+   }
+
+   private record CacheEntry(Department department, long expiresAt) {
+   }
+}
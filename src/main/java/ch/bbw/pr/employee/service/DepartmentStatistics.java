@@ -0,0 +1,30 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.DepartmentHeadcount;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * DepartmentStatistics
+ * Headcount per department and the number of employees without a department.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Value
+public class DepartmentStatistics {
+   List<DepartmentHeadcount> departments;
+   long unassigned;
+
+   public long getTotal() {
+      return unassigned + departments.stream().mapToLong(DepartmentHeadcount::getHeadcount).sum();
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder text = new StringBuilder();
+      departments.forEach(department -> text.append(department).append('\n'));
+      return text.append("unassigned: ").append(unassigned).append('\n')
+            .append("total: ").append(getTotal()).toString();
+   }
+}
@@ -0,0 +1,160 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.DepartmentHeadcount;
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import ch.bbw.pr.employee.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DepartmentStatisticsService
+ * Headcount per department from in-memory counters. The counters are loaded with a grouped
+ * aggregate query and afterwards updated by the EmployeeChangedEvent of every committed write.
+ * Bulk writes and unknown departments discard the counters, they are reloaded at the next read.
+ * A reload after max-age corrects counters that drifted from the table.
+ * Counters loaded while a write is committing are not kept: the load may already count the write
+ * that is applied to the counters after its commit.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Service
+public class DepartmentStatisticsService {
+   private static final Logger logger = LoggerFactory.getLogger(DepartmentStatisticsService.class);
+
+   private final EmployeeRepository employeeRepo;
+   private final long maxAgeNanos;
+   // null when the counters must be reloaded
+   private volatile Counters counters;
+   // incremented on every change, counters loaded while a change happened are not kept
+   private final AtomicLong changes = new AtomicLong();
+   // writes that published a change and did not complete yet, from before their commit until after it
+   private final AtomicLong inFlight = new AtomicLong();
+
+   @Autowired
+   public DepartmentStatisticsService(EmployeeRepository employeeRepo,
+                                      @Value("${department.statistics.max-age:1m}") Duration maxAge) {
+      this.employeeRepo = employeeRepo;
+      this.maxAgeNanos = maxAge.toNanos();
+   }
+
+   public DepartmentStatistics getStatistics() {
+      Counters current = counters;
+      if (current == null || System.nanoTime() - current.loadedAt >= maxAgeNanos) {
+         current = load();
+      }
+      return current.toStatistics();
+   }
+
+   /**
+    * Applies the change after the commit of its transaction, or at once without transaction.
+    */
+   @EventListener
+   public void onEmployeeChanged(EmployeeChangedEvent event) {
+      if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+         applyCommitted(event);
+         return;
+      }
+      inFlight.incrementAndGet();
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+         @Override
+         public void afterCompletion(int status) {
+            try {
+               if (status == STATUS_COMMITTED) {
+                  applyCommitted(event);
+               }
+            } finally {
+               inFlight.decrementAndGet();
+            }
+         }
+      });
+   }
+
+   private void applyCommitted(EmployeeChangedEvent event) {
+      changes.incrementAndGet();
+      Counters current = counters;
+      if (current != null && (event.isBulk() || !current.apply(event))) {
+         counters = null;
+      }
+   }
+
+   public void invalidate() {
+      changes.incrementAndGet();
+      counters = null;
+   }
+
+   private Counters load() {
+      long loadChanges = changes.get();
+      List<DepartmentHeadcount> headcounts = employeeRepo.countPerDepartment();
+      long unassigned = employeeRepo.countByDepartmentIsNull();
+      logger.info("DepartmentStatisticsService.load: " + headcounts.size() + " departments");
+      Counters loaded = new Counters(headcounts, unassigned);
+      counters = loaded;
+      if (changes.get() != loadChanges || inFlight.get() > 0) {
+         // changed while loading, the loaded counts may miss the change or count it twice
+         counters = null;
+      }
+      return loaded;
+   }
+
+   private static class Counters {
+      private final long loadedAt = System.nanoTime();
+      private final Map<Integer, String> descriptions = new LinkedHashMap<>();
+      private final Map<Integer, LongAdder> headcounts = new LinkedHashMap<>();
+      private final LongAdder unassigned = new LongAdder();
+
+      Counters(List<DepartmentHeadcount> loaded, long unassignedCount) {
+         for (DepartmentHeadcount headcount : loaded) {
+            descriptions.put(headcount.getDepartmentId(), headcount.getDescription());
+            LongAdder count = new LongAdder();
+            count.add(headcount.getHeadcount());
+            headcounts.put(headcount.getDepartmentId(), count);
+         }
+         unassigned.add(unassignedCount);
+      }
+
+      /**
+       * Move the employee between the counters, false if a department is not known.
+       */
+      boolean apply(EmployeeChangedEvent event) {
+         LongAdder from = counterOf(event.getPrevious());
+         LongAdder to = counterOf(event.getCurrent());
+         if ((event.getPrevious() != null && from == null) || (event.getCurrent() != null && to == null)) {
+            return false;
+         }
+         if (from != null) {
+            from.decrement();
+         }
+         if (to != null) {
+            to.increment();
+         }
+         return true;
+      }
+
+      private LongAdder counterOf(EmployeeSummary employee) {
+         if (employee == null) {
+            return null;
+         }
+         return employee.getDepartmentId() == null ? unassigned : headcounts.get(employee.getDepartmentId());
+      }
+
+      DepartmentStatistics toStatistics() {
+         List<DepartmentHeadcount> departments = new ArrayList<>(headcounts.size());
+         headcounts.forEach((id, count) -> departments.add(new DepartmentHeadcount(id, descriptions.get(id), count.sum())));
+         return new DepartmentStatistics(departments, unassigned.sum());
+      }
+   }
+}
@@ -0,0 +1,39 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import lombok.Value;
+
+/**
+ * EmployeeChangedEvent
+ * Published by the EmployeeService for every write. previous is null for a created employee,
+ * current is null for a deleted one. Set-based writes do not know the affected rows,
+ * they publish a bulk event with both null.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Value
+public class EmployeeChangedEvent {
+   EmployeeSummary previous;
+   EmployeeSummary current;
+
+   public static EmployeeChangedEvent created(Employee employee) {
+      return new EmployeeChangedEvent(null, EmployeeSummary.of(employee));
+   }
+
+   public static EmployeeChangedEvent changed(EmployeeSummary previous, Employee employee) {
+      return new EmployeeChangedEvent(previous, EmployeeSummary.of(employee));
+   }
+
+   public static EmployeeChangedEvent deleted(Employee employee) {
+      return new EmployeeChangedEvent(EmployeeSummary.of(employee), null);
+   }
+
+   public static EmployeeChangedEvent bulk() {
+      return new EmployeeChangedEvent(null, null);
+   }
+
+   public boolean isBulk() {
+      return previous == null && current == null;
+   }
+}
@@ -0,0 +1,425 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.DepartmentHeadcount;
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * EmployeeColumnStore
+ * Columnar in-memory snapshot of the employee table for analytical queries, which never query the database.
+ * Every employee is a row in primitive int columns: the id, the department and the lastname and firstname
+ * as codes into dictionaries of the distinct values. A name condition is evaluated once per distinct name,
+ * the rows are then scanned in parallel fork-join tasks that only compare ints.
+ * The snapshot is read in one streaming query and kept up to date as a ReloadableSnapshot.
+ * Departments without employees are not known to the snapshot.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Service
+public class EmployeeColumnStore extends ReloadableSnapshot<EmployeeColumnStore.Columns> {
+   // department id of employees without department, database ids start at 1
+   public static final int NO_DEPARTMENT = 0;
+   // rows per fork-join leaf task
+   private static final int SCAN_THRESHOLD = 1 << 14;
+   // up to this number of groups every task counts in its own array, above into one shared array
+   private static final int LOCAL_GROUPS_MAX = 4096;
+
+   private final EmployeeService employeeService;
+
+   @Autowired
+   public EmployeeColumnStore(EmployeeService employeeService,
+                              @Value("${employee.column-store.enabled:true}") boolean enabled) {
+      super("employee-column-store", enabled, new Columns());
+      this.employeeService = employeeService;
+   }
+
+   /**
+    * Conditions of a query, a row matches when all given conditions match.
+    */
+   public static final class Filter {
+      private final Integer departmentId;
+      private final Predicate<String> lastname;
+      private final Predicate<String> firstname;
+
+      private Filter(Integer departmentId, Predicate<String> lastname, Predicate<String> firstname) {
+         this.departmentId = departmentId;
+         this.lastname = lastname;
+         this.firstname = firstname;
+      }
+
+      public static Filter all() {
+         return new Filter(null, null, null);
+      }
+
+      /**
+       * Employees of this department, NO_DEPARTMENT for employees without department.
+       */
+      public Filter departmentId(int departmentId) {
+         return new Filter(departmentId, lastname, firstname);
+      }
+
+      public Filter lastname(Predicate<String> lastname) {
+         return new Filter(departmentId, lastname, firstname);
+      }
+
+      public Filter firstname(Predicate<String> firstname) {
+         return new Filter(departmentId, lastname, firstname);
+      }
+
+      /**
+       * Names beginning with the prefix, ignoring case and accents like the search.
+       */
+      public static Predicate<String> startsWith(String prefix) {
+         String normalized = EmployeeSearchIndex.normalize(prefix);
+         return name -> EmployeeSearchIndex.normalize(name).startsWith(normalized);
+      }
+   }
+
+   public long count(Filter filter) {
+      return read(columns -> columns.count(columns.match(filter)));
+   }
+
+   /**
+    * Matching employees per department ordered by department id, employees without department as unassigned.
+    */
+   public DepartmentStatistics countByDepartment(Filter filter) {
+      return read(columns -> {
+         long[] counts = columns.countGroups(columns.match(filter), columns.departments, columns.departmentIds.size());
+         List<DepartmentHeadcount> departments = new ArrayList<>();
+         for (int code = 1; code < counts.length; code++) {
+            if (counts[code] > 0) {
+               departments.add(new DepartmentHeadcount(columns.departmentIds.get(code),
+                     columns.departmentDescriptions.get(code), counts[code]));
+            }
+         }
+         departments.sort(Comparator.comparingInt(DepartmentHeadcount::getDepartmentId));
+         return new DepartmentStatistics(departments, counts[0]);
+      });
+   }
+
+   /**
+    * The limit most frequent lastnames of the matching employees with their count, most frequent first.
+    */
+   public Map<String, Long> countByLastname(Filter filter, int limit) {
+      return read(columns -> {
+         long[] counts = columns.countGroups(columns.match(filter), columns.lastnames, columns.lastnameDictionary.size());
+         List<Integer> codes = new ArrayList<>();
+         for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+               codes.add(code);
+            }
+         }
+         codes.sort(Comparator.comparingLong((Integer code) -> -counts[code])
+               .thenComparing(code -> columns.lastnameDictionary.values.get(code), Comparator.nullsFirst(Comparator.naturalOrder())));
+         Map<String, Long> result = new LinkedHashMap<>();
+         for (Integer code : codes.subList(0, Math.min(Math.max(limit, 0), codes.size()))) {
+            result.put(columns.lastnameDictionary.values.get(code), counts[code]);
+         }
+         return result;
+      });
+   }
+
+   /**
+    * Ids of at most limit matching employees, in the order of the snapshot: ascending ids as read,
+    * employees created since at the end.
+    */
+   public List<Integer> findIds(Filter filter, int limit) {
+      return read(columns -> Arrays.stream(columns.findIds(columns.match(filter), limit)).boxed().toList());
+   }
+
+   public int size() {
+      return read(columns -> columns.size - columns.deletedRows);
+   }
+
+   @Override
+   protected Columns load() {
+      Columns loaded = new Columns();
+      employeeService.streamEmployeeSummaries(loaded::put);
+      return loaded;
+   }
+
+   @Override
+   protected void apply(Columns columns, EmployeeChangedEvent event) {
+      columns.apply(event);
+   }
+
+   // deleted rows stay in the columns until the next load
+   @Override
+   protected boolean needsReload(Columns columns) {
+      return columns.deletedRows > SCAN_THRESHOLD && columns.deletedRows > columns.size / 2;
+   }
+
+   @Override
+   protected String describe(Columns columns) {
+      return columns.size + " employees, " + columns.lastnameDictionary.size() + " distinct lastnames";
+   }
+
+   // changes are applied to the columns in place, the scan of a query holds the read lock
+   private <T> T read(Function<Columns, T> query) {
+      lock.readLock().lock();
+      try {
+         return query.apply(snapshot());
+      } finally {
+         lock.readLock().unlock();
+      }
+   }
+
+   /**
+    * The distinct values of a column, the code of a value is its index.
+    */
+   private static final class Dictionary {
+      final Map<String, Integer> codes = new HashMap<>();
+      final List<String> values = new ArrayList<>();
+
+      int encode(String value) {
+         return codes.computeIfAbsent(value, key -> {
+            values.add(key);
+            return values.size() - 1;
+         });
+      }
+
+      int size() {
+         return values.size();
+      }
+
+      // matching[code] per distinct value, null matches all
+      boolean[] matching(Predicate<String> predicate) {
+         if (predicate == null) {
+            return null;
+         }
+         boolean[] matching = new boolean[values.size()];
+         for (int code = 0; code < matching.length; code++) {
+            String value = values.get(code);
+            matching[code] = value != null && predicate.test(value);
+         }
+         return matching;
+      }
+   }
+
+   // a filter resolved to codes, department ANY_DEPARTMENT matches all, UNKNOWN_DEPARTMENT none
+   private record Match(int department, boolean[] lastnames, boolean[] firstnames) {
+      static final int ANY_DEPARTMENT = -1;
+      static final int UNKNOWN_DEPARTMENT = -2;
+   }
+
+   static final class Columns {
+      int size;
+      int deletedRows;
+      int[] ids = new int[1024];
+      int[] departments = new int[1024];
+      int[] lastnames = new int[1024];
+      int[] firstnames = new int[1024];
+      final BitSet deleted = new BitSet();
+      // the ids of all rows ascending and the row of each, binary searched; rows are loaded by ascending id,
+      // so the ids of new rows are mostly appended. Deleted rows keep their entry.
+      int[] sortedIds = new int[1024];
+      int[] sortedRows = new int[1024];
+      final Dictionary lastnameDictionary = new Dictionary();
+      final Dictionary firstnameDictionary = new Dictionary();
+      // department code -> id and last seen description, code 0 is NO_DEPARTMENT
+      final Map<Integer, Integer> departmentCodes = new HashMap<>();
+      final List<Integer> departmentIds = new ArrayList<>(List.of(NO_DEPARTMENT));
+      final List<String> departmentDescriptions = new ArrayList<>(Arrays.asList((String) null));
+
+      Columns() {
+         departmentCodes.put(NO_DEPARTMENT, 0);
+      }
+
+      void apply(EmployeeChangedEvent event) {
+         if (event.getPrevious() != null
+               && (event.getCurrent() == null || event.getCurrent().getId() != event.getPrevious().getId())) {
+            remove(event.getPrevious().getId());
+         }
+         if (event.getCurrent() != null) {
+            put(event.getCurrent());
+         }
+      }
+
+      void put(EmployeeSummary employee) {
+         int id = employee.getId();
+         int position = Arrays.binarySearch(sortedIds, 0, size, id);
+         int row;
+         if (position >= 0) {
+            row = sortedRows[position];
+            if (deleted.get(row)) {
+               deleted.clear(row);
+               deletedRows--;
+            }
+         } else {
+            if (size == ids.length) {
+               int capacity = size * 2;
+               ids = Arrays.copyOf(ids, capacity);
+               departments = Arrays.copyOf(departments, capacity);
+               lastnames = Arrays.copyOf(lastnames, capacity);
+               firstnames = Arrays.copyOf(firstnames, capacity);
+               sortedIds = Arrays.copyOf(sortedIds, capacity);
+               sortedRows = Arrays.copyOf(sortedRows, capacity);
+            }
+            int insert = -position - 1;
+            System.arraycopy(sortedIds, insert, sortedIds, insert + 1, size - insert);
+            System.arraycopy(sortedRows, insert, sortedRows, insert + 1, size - insert);
+            row = size++;
+            sortedIds[insert] = id;
+            sortedRows[insert] = row;
+            ids[row] = id;
+         }
+         departments[row] = departmentCode(employee.getDepartmentId(), employee.getDepartmentDescription());
+         lastnames[row] = lastnameDictionary.encode(employee.getLastname());
+         firstnames[row] = firstnameDictionary.encode(employee.getFirstname());
+      }
+
+      void remove(int id) {
+         int position = Arrays.binarySearch(sortedIds, 0, size, id);
+         if (position >= 0 && !deleted.get(sortedRows[position])) {
+            deleted.set(sortedRows[position]);
+            deletedRows++;
+         }
+      }
+
+      private int departmentCode(Integer departmentId, String description) {
+         if (departmentId == null) {
+            return 0;
+         }
+         Integer code = departmentCodes.get(departmentId);
+         if (code == null) {
+            code = departmentIds.size();
+            departmentCodes.put(departmentId, code);
+            departmentIds.add(departmentId);
+            departmentDescriptions.add(description);
+         } else {
+            departmentDescriptions.set(code, description);
+         }
+         return code;
+      }
+
+      Match match(Filter filter) {
+         int department = filter.departmentId == null ? Match.ANY_DEPARTMENT
+               : departmentCodes.getOrDefault(filter.departmentId, Match.UNKNOWN_DEPARTMENT);
+         return new Match(department, lastnameDictionary.matching(filter.lastname), firstnameDictionary.matching(filter.firstname));
+      }
+
+      boolean matches(int row, Match match) {
+         return !deleted.get(row)
+               && (match.department() == Match.ANY_DEPARTMENT || departments[row] == match.department())
+               && (match.lastnames() == null || match.lastnames()[lastnames[row]])
+               && (match.firstnames() == null || match.firstnames()[firstnames[row]]);
+      }
+
+      long count(Match match) {
+         return ForkJoinPool.commonPool().invoke(new RangeTask<>(0, size, (from, to) -> {
+            long count = 0;
+            for (int row = from; row < to; row++) {
+               if (matches(row, match)) {
+                  count++;
+               }
+            }
+            return count;
+         }, Long::sum));
+      }
+
+      // count of the matching rows per code of the column
+      long[] countGroups(Match match, int[] column, int groups) {
+         if (groups <= LOCAL_GROUPS_MAX) {
+            return ForkJoinPool.commonPool().invoke(new RangeTask<>(0, size, (from, to) -> {
+               long[] counts = new long[groups];
+               for (int row = from; row < to; row++) {
+                  if (matches(row, match)) {
+                     counts[column[row]]++;
+                  }
+               }
+               return counts;
+            }, (left, right) -> {
+               for (int group = 0; group < groups; group++) {
+                  left[group] += right[group];
+               }
+               return left;
+            }));
+         }
+         // one array per task would cost groups * tasks longs, with many groups the tasks rarely hit the same one
+         AtomicLongArray shared = new AtomicLongArray(groups);
+         ForkJoinPool.commonPool().invoke(new RangeTask<Void>(0, size, (from, to) -> {
+            for (int row = from; row < to; row++) {
+               if (matches(row, match)) {
+                  shared.incrementAndGet(column[row]);
+               }
+            }
+            return null;
+         }, (left, right) -> null));
+         long[] counts = new long[groups];
+         for (int group = 0; group < groups; group++) {
+            counts[group] = shared.get(group);
+         }
+         return counts;
+      }
+
+      int[] findIds(Match match, int limit) {
+         int max = Math.max(limit, 0);
+         return ForkJoinPool.commonPool().invoke(new RangeTask<>(0, size, (from, to) -> {
+            int[] found = new int[Math.min(max, to - from)];
+            int count = 0;
+            for (int row = from; row < to && count < found.length; row++) {
+               if (matches(row, match)) {
+                  found[count++] = ids[row];
+               }
+            }
+            return Arrays.copyOf(found, count);
+         }, (left, right) -> {
+            int[] merged = Arrays.copyOf(left, Math.min(max, left.length + right.length));
+            System.arraycopy(right, 0, merged, left.length, merged.length - left.length);
+            return merged;
+         }));
+      }
+   }
+
+   @FunctionalInterface
+   private interface RangeScan<T> {
+      T scan(int from, int to);
+   }
+
+   /**
+    * Splits the rows from (inclusive) to (exclusive) in halves until SCAN_THRESHOLD rows are left,
+    * scans them in parallel and merges the results in row order.
+    */
+   private static final class RangeTask<T> extends RecursiveTask<T> {
+      private final int from;
+      private final int to;
+      private final RangeScan<T> scan;
+      private final BinaryOperator<T> merge;
+
+      RangeTask(int from, int to, RangeScan<T> scan, BinaryOperator<T> merge) {
+         this.from = from;
+         this.to = to;
+         this.scan = scan;
+         this.merge = merge;
+      }
+
+      @Override
+      protected T compute() {
+         if (to - from <= SCAN_THRESHOLD) {
+            return scan.scan(from, to);
+         }
+         int middle = (from + to) >>> 1;
+         RangeTask<T> left = new RangeTask<>(from, middle, scan, merge);
+         left.fork();
+         T right = new RangeTask<>(middle, to, scan, merge).compute();
+         return merge.apply(left.join(), right);
+      }
+   }
+}
@@ -0,0 +1,226 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.Employee;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * EmployeeGroupCommit
+ * Write-behind creation of employees: concurrent creates are queued and inserted together in one
+ * transaction as soon as max-batch-size employees are waiting or the first one waited max-delay.
+ * One commit (and one fsync of the database log) is shared by the whole batch. Every caller gets its
+ * saved employee with the generated id through its future. If the batch transaction fails, the employees
+ * are inserted one by one, so only the callers whose employee fails get the exception.
+ * The queue is bounded, callers block while it is full, at most timeout; then the employee is rejected.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Service
+public class EmployeeGroupCommit {
+   private static final Logger logger = LoggerFactory.getLogger(EmployeeGroupCommit.class);
+   private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+   private final EmployeeService employeeService;
+   private final boolean enabled;
+   private final int maxBatchSize;
+   private final long maxDelayNanos;
+   private final Duration timeout;
+   private final BlockingQueue<PendingCreate> queue;
+   private final ExecutorService flusher;
+   private volatile boolean running = true;
+   // submit enqueues under the read lock, shutdown stops under the write lock: nothing is queued after the flusher stopped
+   private final ReadWriteLock stopLock = new ReentrantReadWriteLock();
+   private final LongAdder batches = new LongAdder();
+   private final LongAdder rows = new LongAdder();
+   private final LongAdder queueWaitNanos = new LongAdder();
+
+   @Autowired
+   public EmployeeGroupCommit(EmployeeService employeeService,
+                              @Value("${employee.group-commit.enabled:false}") boolean enabled,
+                              @Value("${employee.group-commit.max-batch-size:100}") int maxBatchSize,
+                              @Value("${employee.group-commit.max-delay:5ms}") Duration maxDelay,
+                              @Value("${employee.group-commit.queue-capacity:10000}") int queueCapacity,
+                              @Value("${employee.group-commit.timeout:10s}") Duration timeout) {
+      this.employeeService = employeeService;
+      this.enabled = enabled;
+      this.maxBatchSize = maxBatchSize;
+      this.maxDelayNanos = maxDelay.toNanos();
+      this.timeout = timeout;
+      this.queue = new ArrayBlockingQueue<>(queueCapacity);
+      if (enabled) {
+         flusher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-group-commit");
+            thread.setDaemon(true);
+            return thread;
+         });
+         flusher.execute(this::run);
+      } else {
+         flusher = null;
+      }
+   }
+
+   public boolean isEnabled() {
+      return enabled;
+   }
+
+   /**
+    * Longest wait for a place in the queue and for the commit of a queued employee.
+    */
+   public Duration getTimeout() {
+      return timeout;
+   }
+
+   /**
+    * Queue a new employee, the future completes after the commit of its batch.
+    */
+   public CompletableFuture<Employee> submit(Employee employee) {
+      if (!enabled) {
+         throw new RejectedExecutionException("Group commit is not running");
+      }
+      PendingCreate pending = new PendingCreate(employee, System.nanoTime(), new CompletableFuture<>());
+      stopLock.readLock().lock();
+      try {
+         if (!running) {
+            throw new RejectedExecutionException("Group commit is not running");
+         }
+         if (!queue.offer(pending, timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            throw new RejectedExecutionException("Group commit queue stayed full for " + timeout);
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new RejectedExecutionException("Interrupted while waiting for the group commit queue", e);
+      } finally {
+         stopLock.readLock().unlock();
+      }
+      return pending.result;
+   }
+
+   public long getBatches() {
+      return batches.sum();
+   }
+
+   public long getRows() {
+      return rows.sum();
+   }
+
+   public double getQueueWaitMillis() {
+      return queueWaitNanos.sum() / 1_000_000.0;
+   }
+
+   public int getQueueSize() {
+      return queue.size();
+   }
+
+   /**
+    * Stop accepting employees and commit the queued ones.
+    */
+   @PreDestroy
+   public void shutdown() {
+      if (flusher == null) {
+         return;
+      }
+      // waits for submits in progress, which are then committed by the flusher
+      stopLock.writeLock().lock();
+      try {
+         running = false;
+      } finally {
+         stopLock.writeLock().unlock();
+      }
+      flusher.shutdown();
+      try {
+         if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+            flusher.shutdownNow();
+         }
+      } catch (InterruptedException e) {
+         flusher.shutdownNow();
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   private void run() {
+      List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+      try {
+         while (running || !queue.isEmpty()) {
+            PendingCreate first = queue.poll(POLL_NANOS, TimeUnit.NANOSECONDS);
+            if (first == null) {
+               continue;
+            }
+            batch.add(first);
+            long deadline = first.enqueuedAt + maxDelayNanos;
+            // waits in short steps, so a shutdown commits the queued employees without delay
+            while (batch.size() < maxBatchSize && running) {
+               if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                  continue;
+               }
+               long wait = deadline - System.nanoTime();
+               if (wait <= 0) {
+                  break;
+               }
+               PendingCreate next = queue.poll(Math.min(wait, POLL_NANOS), TimeUnit.NANOSECONDS);
+               if (next != null) {
+                  batch.add(next);
+               }
+            }
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            flush(batch);
+            batch.clear();
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+      RejectedExecutionException stopped = new RejectedExecutionException("Group commit stopped");
+      batch.forEach(pending -> pending.result.completeExceptionally(stopped));
+      queue.forEach(pending -> pending.result.completeExceptionally(stopped));
+   }
+
+   private void flush(List<PendingCreate> batch) {
+      long now = System.nanoTime();
+      for (PendingCreate pending : batch) {
+         queueWaitNanos.add(now - pending.enqueuedAt);
+      }
+      batches.increment();
+      rows.add(batch.size());
+      try {
+         List<Employee> saved = employeeService.createEmployees(batch.stream().map(PendingCreate::employee).toList());
+         for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result.complete(saved.get(i));
+         }
+      } catch (RuntimeException e) {
+         logger.warn("EmployeeGroupCommit.flush: batch of " + batch.size() + " failed, inserting one by one: " + e);
+         batch.forEach(this::flushAlone);
+      }
+   }
+
+   private void flushAlone(PendingCreate pending) {
+      Employee employee = pending.employee;
+      // id and version were assigned in the rolled back transaction
+      employee.setId(0);
+      employee.setVersion(0);
+      try {
+         pending.result.complete(employeeService.createEmployees(List.of(employee)).get(0));
+      } catch (RuntimeException e) {
+         pending.result.completeExceptionally(e);
+      }
+   }
+
+   private record PendingCreate(Employee employee, long enqueuedAt, CompletableFuture<Employee> result) {
+   }
+}
@@ -0,0 +1,392 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * EmployeeSearchIndex
+ * In-memory index for the prefix and typo-tolerant search by lastname and firstname.
+ * Names are split into tokens, lowercase and without accents. Prefix matches are found in a skip list
+ * of the distinct tokens, fuzzy matches through the trigrams of the tokens and the edit distance.
+ * The index is read in chunks and kept up to date as a ReloadableSnapshot, searches read it without lock.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Service
+public class EmployeeSearchIndex extends ReloadableSnapshot<EmployeeSearchIndex.Index> {
+   private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+   private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+   private static final int SCAN_CHUNK_SIZE = 1000;
+   public static final int MAX_RESULTS = 100;
+   // bounds the time of a fuzzy search, the tokens of the rarest trigrams are scored first
+   static final int MAX_FUZZY_CANDIDATES = 5000;
+
+   private final EmployeeService employeeService;
+
+   @Autowired
+   public EmployeeSearchIndex(EmployeeService employeeService) {
+      super("employee-search-index", true, new Index());
+      this.employeeService = employeeService;
+   }
+
+   /**
+    * Employees whose lastname or firstname matches the query exactly, by prefix or with typos,
+    * best matches first and lastnames before firstnames. A query of several words, e.g. "max muster",
+    * finds the employees whose names match every word, ranked by the longest word.
+    */
+   public List<EmployeeSummary> search(String query, int limit) {
+      List<String> terms = tokens(query);
+      if (terms.isEmpty() || limit <= 0) {
+         return List.of();
+      }
+      return snapshot().search(terms, Math.min(limit, MAX_RESULTS));
+   }
+
+   public int size() {
+      return snapshot().employees.size();
+   }
+
+   @Override
+   protected Index load() {
+      Index loaded = new Index();
+      employeeService.scanEmployeeSummaries(SCAN_CHUNK_SIZE, loaded::put);
+      return loaded;
+   }
+
+   @Override
+   protected String describe(Index index) {
+      return index.employees.size() + " employees";
+   }
+
+   @Override
+   protected void apply(Index target, EmployeeChangedEvent event) {
+      if (event.getPrevious() != null) {
+         target.remove(event.getPrevious().getId());
+      }
+      if (event.getCurrent() != null) {
+         target.put(event.getCurrent());
+      }
+   }
+
+   static String normalize(String text) {
+      return MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+   }
+
+   static List<String> tokens(String name) {
+      List<String> tokens = new ArrayList<>();
+      if (name != null) {
+         for (String token : SEPARATORS.split(normalize(name))) {
+            if (!token.isEmpty()) {
+               tokens.add(token);
+            }
+         }
+      }
+      return tokens;
+   }
+
+   // one edit for short terms, two for longer ones
+   static int maxEdits(String term) {
+      return term.length() <= 5 ? 1 : 2;
+   }
+
+   /**
+    * True when one of the name tokens is the term, begins with it or is within its edit distance,
+    * or begins within one edit like the fuzzy matches.
+    */
+   static boolean matches(String term, List<String> nameTokens) {
+      for (String token : nameTokens) {
+         if (token.startsWith(term)) {
+            return true;
+         }
+         if (term.length() >= 3 && (distance(term, token, maxEdits(term)) <= maxEdits(term)
+               || token.length() > term.length() && distance(term, token.substring(0, term.length()), 1) <= 1)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   // whether trigrams(token) contains the trigram, without building them
+   static boolean hasTrigram(String token, String trigram) {
+      boolean start = trigram.charAt(0) == '$';
+      boolean end = trigram.charAt(trigram.length() - 1) == '$';
+      int length = trigram.length() - (start ? 1 : 0) - (end ? 1 : 0);
+      if (start && end) {
+         return token.length() == length && token.regionMatches(0, trigram, 1, length);
+      }
+      if (start) {
+         return token.regionMatches(0, trigram, 1, length);
+      }
+      if (end) {
+         return token.regionMatches(token.length() - length, trigram, 0, length);
+      }
+      return token.contains(trigram);
+   }
+
+   static List<String> trigrams(String token) {
+      String padded = "$" + token + "$";
+      List<String> trigrams = new ArrayList<>(padded.length());
+      for (int i = 0; i + 3 <= padded.length(); i++) {
+         trigrams.add(padded.substring(i, i + 3));
+      }
+      if (trigrams.isEmpty()) {
+         trigrams.add(padded);
+      }
+      return trigrams;
+   }
+
+   /**
+    * Edit distance of a and b, or max + 1 as soon as it exceeds max.
+    */
+   static int distance(String a, String b, int max) {
+      if (Math.abs(a.length() - b.length()) > max) {
+         return max + 1;
+      }
+      int[] previous = new int[b.length() + 1];
+      int[] current = new int[b.length() + 1];
+      for (int j = 0; j <= b.length(); j++) {
+         previous[j] = j;
+      }
+      for (int i = 1; i <= a.length(); i++) {
+         current[0] = i;
+         int rowMin = current[0];
+         for (int j = 1; j <= b.length(); j++) {
+            int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+            current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            rowMin = Math.min(rowMin, current[j]);
+         }
+         if (rowMin > max) {
+            return max + 1;
+         }
+         int[] swap = previous;
+         previous = current;
+         current = swap;
+      }
+      return previous[b.length()];
+   }
+
+   private static class Postings {
+      final Set<Integer> lastnames = new ConcurrentSkipListSet<>();
+      final Set<Integer> firstnames = new ConcurrentSkipListSet<>();
+
+      boolean isEmpty() {
+         return lastnames.isEmpty() && firstnames.isEmpty();
+      }
+   }
+
+   static final class Index {
+      final Map<Integer, EmployeeSummary> employees = new ConcurrentHashMap<>();
+      final NavigableMap<String, Postings> tokens = new ConcurrentSkipListMap<>();
+      final Map<String, Set<String>> trigrams = new ConcurrentHashMap<>();
+
+      void put(EmployeeSummary employee) {
+         remove(employee.getId());
+         employees.put(employee.getId(), employee);
+         for (String token : tokens(employee.getLastname())) {
+            postings(token).lastnames.add(employee.getId());
+         }
+         for (String token : tokens(employee.getFirstname())) {
+            postings(token).firstnames.add(employee.getId());
+         }
+      }
+
+      void remove(int id) {
+         EmployeeSummary employee = employees.remove(id);
+         if (employee == null) {
+            return;
+         }
+         for (String token : tokens(employee.getLastname())) {
+            unlink(token, id);
+         }
+         for (String token : tokens(employee.getFirstname())) {
+            unlink(token, id);
+         }
+      }
+
+      private Postings postings(String token) {
+         return tokens.computeIfAbsent(token, key -> {
+            for (String trigram : trigrams(key)) {
+               trigrams.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(key);
+            }
+            return new Postings();
+         });
+      }
+
+      private void unlink(String token, int id) {
+         Postings postings = tokens.get(token);
+         if (postings == null) {
+            return;
+         }
+         postings.lastnames.remove(id);
+         postings.firstnames.remove(id);
+         if (postings.isEmpty()) {
+            tokens.remove(token);
+            for (String trigram : trigrams(token)) {
+               Set<String> withTrigram = trigrams.get(trigram);
+               if (withTrigram != null) {
+                  withTrigram.remove(token);
+                  if (withTrigram.isEmpty()) {
+                     trigrams.remove(trigram);
+                  }
+               }
+            }
+         }
+      }
+
+      List<EmployeeSummary> search(List<String> terms, int limit) {
+         String term = terms.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+         List<String> others = new ArrayList<>(terms);
+         others.remove(term);
+         Predicate<Integer> accept = others.isEmpty() ? id -> true : id -> matchesAll(id, others);
+         // ranked by tier: exact token, prefix of a token, token within the edit distance;
+         // with more words most employees of a token may be filtered out, so all prefixed tokens are taken
+         List<String> matches = new ArrayList<>();
+         if (tokens.containsKey(term)) {
+            matches.add(term);
+         }
+         for (String token : tokens.subMap(term, false, term + Character.MAX_VALUE, false).keySet()) {
+            matches.add(token);
+            if (others.isEmpty() && matches.size() >= limit) {
+               break;
+            }
+         }
+         Set<Integer> ids = new LinkedHashSet<>();
+         collect(matches, limit, accept, ids);
+         if (ids.size() < limit) {
+            collect(fuzzyMatches(term, matches), limit, accept, ids);
+         }
+         List<EmployeeSummary> result = new ArrayList<>(ids.size());
+         for (Integer id : ids) {
+            EmployeeSummary employee = employees.get(id);
+            if (employee != null) {
+               result.add(employee);
+            }
+         }
+         return result;
+      }
+
+      private boolean matchesAll(int id, List<String> terms) {
+         EmployeeSummary employee = employees.get(id);
+         if (employee == null) {
+            return false;
+         }
+         List<String> nameTokens = tokens(employee.getLastname());
+         nameTokens.addAll(tokens(employee.getFirstname()));
+         return terms.stream().allMatch(term -> matches(term, nameTokens));
+      }
+
+      private void collect(List<String> matches, int limit, Predicate<Integer> accept, Set<Integer> ids) {
+         for (boolean lastnames : new boolean[]{true, false}) {
+            for (String token : matches) {
+               Postings postings = tokens.get(token);
+               if (postings == null) {
+                  continue;
+               }
+               for (Integer id : lastnames ? postings.lastnames : postings.firstnames) {
+                  if (ids.size() >= limit) {
+                     return;
+                  }
+                  if (accept.test(id)) {
+                     ids.add(id);
+                  }
+               }
+            }
+         }
+      }
+
+      /**
+       * Tokens within the edit distance of the term, or whose beginning is within one edit. One edit removes
+       * at most three of the distinct trigrams, so candidates must share enough trigrams with the term.
+       * The trigram at the end of the term ("er$") is not in a longer token, it does not count for the beginnings.
+       * A token sharing m of n trigrams has one of any n - m + 1 of them, only the tokens of the rarest are read.
+       * At most MAX_FUZZY_CANDIDATES tokens are scored, the matches among them are returned.
+       */
+      private List<String> fuzzyMatches(String term, List<String> exclude) {
+         if (term.length() < 3) {
+            return List.of();
+         }
+         int maxEdits = maxEdits(term);
+         List<String> termTrigrams = trigrams(term).stream().distinct().toList();
+         String end = termTrigrams.get(termTrigrams.size() - 1);
+         List<String> beginningTrigrams = termTrigrams.subList(0, termTrigrams.size() - 1);
+         int minShared = Math.max(1, termTrigrams.size() - 3 * maxEdits);
+         // terms of four characters and less have too few trigrams for the beginnings
+         int minSharedBeginning = beginningTrigrams.size() - 3;
+         List<Set<String>> candidates = new ArrayList<>(rarest(termTrigrams, termTrigrams.size() - minShared + 1));
+         if (minSharedBeginning >= 1) {
+            candidates.addAll(rarest(beginningTrigrams, beginningTrigrams.size() - minSharedBeginning + 1));
+         }
+         candidates.sort(Comparator.comparingInt(Set::size));
+         Set<String> excluded = new HashSet<>(exclude);
+         Map<String, Integer> distances = new HashMap<>();
+         int scored = 0;
+         for (int i = 0; i < candidates.size() && scored < MAX_FUZZY_CANDIDATES; i++) {
+            for (String token : candidates.get(i)) {
+               if (scored >= MAX_FUZZY_CANDIDATES) {
+                  break;
+               }
+               if (!excluded.contains(token) && !scoredBefore(token, candidates, i)) {
+                  scored++;
+                  int shared = 0;
+                  for (String trigram : termTrigrams) {
+                     if (hasTrigram(token, trigram)) {
+                        shared++;
+                     }
+                  }
+                  int distance = maxEdits + 1;
+                  if (shared >= minShared && Math.abs(token.length() - term.length()) <= maxEdits) {
+                     distance = distance(term, token, maxEdits);
+                  }
+                  if (distance > 1 && minSharedBeginning >= 1 && token.length() > term.length()
+                        && shared - (hasTrigram(token, end) ? 1 : 0) >= minSharedBeginning) {
+                     distance = Math.min(distance, distance(term, token.substring(0, term.length()), 1));
+                  }
+                  if (distance <= maxEdits) {
+                     distances.put(token, distance);
+                  }
+               }
+            }
+         }
+         List<String> fuzzy = new ArrayList<>(distances.keySet());
+         fuzzy.sort(Comparator.comparing((String token) -> distances.get(token)).thenComparing(Comparator.naturalOrder()));
+         return fuzzy;
+      }
+
+      // whether the token is in one of the candidate sets read before the set at index
+      private static boolean scoredBefore(String token, List<Set<String>> candidates, int index) {
+         for (int i = 0; i < index; i++) {
+            if (candidates.get(i).contains(token)) {
+               return true;
+            }
+         }
+         return false;
+      }
+
+      // the token sets of the count trigrams with the fewest tokens
+      private List<Set<String>> rarest(List<String> termTrigrams, int count) {
+         return termTrigrams.stream()
+               .map(trigram -> trigrams.getOrDefault(trigram, Set.of()))
+               .sorted(Comparator.comparingInt(Set::size))
+               .limit(count)
+               .toList();
+      }
+   }
+}
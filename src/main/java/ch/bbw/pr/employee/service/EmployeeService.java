@@ -2,101 +2,469 @@ package ch.bbw.pr.employee.service;
 
 import ch.bbw.pr.employee.model.Department;
 import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
 import ch.bbw.pr.employee.repository.DepartmentRepository;
 import ch.bbw.pr.employee.repository.EmployeeRepository;
-import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * EmployeeService
+ * Every write publishes an EmployeeChangedEvent. Concurrent identical summary reads are coalesced,
+ * they run without a service transaction, so waiting callers hold no connection.
+ * Pages for conditional requests are returned with the DataVersion taken before they were read,
+ * only callers that saw the same version share such a read.
+ * Lookups of lastnames the LastnameFilter knows to be absent return without a query.
+ * Read-modify-write operations are retried by OptimisticRetry when the employee changed concurrently.
  * @author Peter Rutschmann
  * @version 21.12.2024
  */
 @Service
 public class EmployeeService {
    private static final Logger logger = LoggerFactory.getLogger(EmployeeService.class);
+   public static final int MAX_PAGE_SIZE = 500;
+   // ids per IN list, below the in_predicate_conversion_threshold (1000) of MariaDB,
+   // so the list is resolved with primary key lookups instead of a temporary table
+   public static final int ID_CHUNK_SIZE = 500;
+   public static final int MAX_IMPORT_BATCH_SIZE = 10_000;
    private final EmployeeRepository employeeRepo;
    private final DepartmentRepository departmentRepo;
+   private final ApplicationEventPublisher eventPublisher;
+   private final LastnameFilter lastnameFilter;
+   private final OptimisticRetry retry;
+   private final DataVersionService dataVersions;
+   private final SingleFlight reads = new SingleFlight();
 
    // Constructor injection
    @Autowired
-   public EmployeeService(EmployeeRepository employeeRepo, DepartmentRepository departmentRepo) {
+   public EmployeeService(EmployeeRepository employeeRepo, DepartmentRepository departmentRepo,
+                          ApplicationEventPublisher eventPublisher, LastnameFilter lastnameFilter,
+                          OptimisticRetry retry, DataVersionService dataVersions) {
       this.employeeRepo = employeeRepo;
       this.departmentRepo = departmentRepo;
+      this.eventPublisher = eventPublisher;
+      this.lastnameFilter = lastnameFilter;
+      this.retry = retry;
+      this.dataVersions = dataVersions;
    }
 
+   @Transactional(readOnly = true)
    public Iterable<Employee> findAllEmployees() {
       return employeeRepo.findAll();
    }
 
+   /**
+    * The page size used for a requested size, between 1 and MAX_PAGE_SIZE.
+    */
+   public static int pageSize(int size) {
+      return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+   }
+
+   /**
+    * Keyset pagination: employees with an id greater than afterId, ordered by id.
+    * The page size is limited to MAX_PAGE_SIZE.
+    */
+   @Transactional(readOnly = true)
+   public KeysetPage<Employee> findEmployeesAfter(int afterId, int size) {
+      logger.info("EmployeeService.findEmployeesAfter: " + afterId + " size " + size);
+      int pageSize = pageSize(size);
+      List<Employee> rows = employeeRepo.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+      return KeysetPage.of(rows, pageSize, Employee::getId);
+   }
+
+   /**
+    * Keyset pagination like findEmployeesAfter, but as read-only projection for the views,
+    * with the version of all employees taken before the page was read.
+    */
+   public Versioned<KeysetPage<EmployeeSummary>> findEmployeeSummariesAfter(int afterId, int size) {
+      logger.info("EmployeeService.findEmployeeSummariesAfter: " + afterId + " size " + size);
+      int pageSize = pageSize(size);
+      DataVersion version = dataVersions.getVersion();
+      return reads.execute("findEmployeeSummariesAfter", List.of(afterId, pageSize, version.getEtag()),
+            () -> dataVersions.read(version, () -> {
+               List<EmployeeSummary> rows = employeeRepo.findSummariesAfter(afterId, Limit.of(pageSize + 1));
+               return KeysetPage.of(rows, pageSize, EmployeeSummary::getId);
+            }));
+   }
+
    @Transactional
-   public Iterable<Employee> addEmployee(String firstname, String lastname) {
+   public MutationResult addEmployee(String firstname, String lastname) {
       logger.info("EmployeeService.addEmployee: " + firstname + " " + lastname);
       Employee employee = new Employee();
       employee.setFirstname(firstname);
       employee.setLastname(lastname);
-      employeeRepo.save(employee);
-      return employeeRepo.findAll();
+      lastnameFilter.add(lastname);
+      Employee saved = employeeRepo.save(employee);
+      eventPublisher.publishEvent(EmployeeChangedEvent.created(saved));
+      return MutationResult.of(saved);
    }
 
    @Transactional
-   public Iterable<Employee> addEmployeeToFirstDepartment(String firstname, String lastname) {
+   public MutationResult addEmployeeToFirstDepartment(String firstname, String lastname) {
       logger.info("EmployeeService.addEmployeeToFirstDepartment: "+ firstname + " " + lastname);
       Department department = departmentRepo.findAll().iterator().next();
       Employee employee = new Employee();
       employee.setFirstname(firstname);
       employee.setLastname(lastname);
       employee.setDepartment(department);
-      employeeRepo.save(employee);
-      return employeeRepo.findAll();
+      lastnameFilter.add(lastname);
+      Employee saved = employeeRepo.save(employee);
+      eventPublisher.publishEvent(EmployeeChangedEvent.created(saved));
+      return MutationResult.of(saved);
    }
 
+   @Transactional(readOnly = true)
    public Optional<Employee> getEmployeeById(int id) {
       logger.info("EmployeeService.getEmployeeById: " + id);
       return employeeRepo.findById(id);
    }
 
+   /**
+    * Like getEmployeeById, but with the department loaded, so the employee can be changed
+    * and saved in a later transaction.
+    */
+   @Transactional(readOnly = true)
+   public Optional<Employee> getEmployeeWithDepartmentById(int id) {
+      logger.info("EmployeeService.getEmployeeWithDepartmentById: " + id);
+      return employeeRepo.findWithDepartmentById(id);
+   }
+
+   /**
+    * Look up many employees as summaries in one transaction with one IN query per ID_CHUNK_SIZE ids.
+    * The employees are returned in the order of the ids, duplicate ids once, unknown ids as missing.
+    */
+   @Transactional(readOnly = true)
+   public MultiGetResult<EmployeeSummary> getEmployeeSummariesByIds(Collection<Integer> ids) {
+      logger.info("EmployeeService.getEmployeeSummariesByIds: " + ids.size() + " ids");
+      List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+      Map<Integer, EmployeeSummary> byId = new HashMap<>();
+      for (int from = 0; from < distinctIds.size(); from += ID_CHUNK_SIZE) {
+         List<Integer> chunk = distinctIds.subList(from, Math.min(from + ID_CHUNK_SIZE, distinctIds.size()));
+         employeeRepo.findSummariesByIdIn(chunk).forEach(employee -> byId.put(employee.getId(), employee));
+      }
+      List<EmployeeSummary> found = new ArrayList<>(byId.size());
+      List<Integer> missing = new ArrayList<>();
+      for (Integer id : distinctIds) {
+         EmployeeSummary employee = byId.get(id);
+         if (employee == null) {
+            missing.add(id);
+         } else {
+            found.add(employee);
+         }
+      }
+      return new MultiGetResult<>(found, missing);
+   }
+
+   public Optional<EmployeeSummary> getEmployeeSummaryById(int id) {
+      logger.info("EmployeeService.getEmployeeSummaryById: " + id);
+      return reads.execute("getEmployeeSummaryById", id, () -> employeeRepo.findSummaryById(id));
+   }
+
+   @Transactional(readOnly = true)
    public Optional<Employee> getEmployeeByName(String lastname) {
       logger.info("EmployeeService.getEmployeeByName: " + lastname);
-      List<Employee> list = employeeRepo.findByLastname(lastname);
+      List<Employee> list = findByLastname(lastname);
       return list.isEmpty() ? Optional.empty() : Optional.of(list.get(0));
    }
 
-   @Transactional
-   public Iterable<Employee> updateEmployeeLastname(String oldlastname, String newlastname) {
+   public Optional<EmployeeSummary> getEmployeeSummaryByName(String lastname) {
+      logger.info("EmployeeService.getEmployeeSummaryByName: " + lastname);
+      if (lastnameFilter.isAbsent(lastname)) {
+         return Optional.empty();
+      }
+      return reads.execute("getEmployeeSummaryByName", lastname, () -> {
+         List<EmployeeSummary> list = employeeRepo.findSummariesByLastname(lastname);
+         if (list.isEmpty()) {
+            lastnameFilter.recordFalsePositive();
+            return Optional.<EmployeeSummary>empty();
+         }
+         return Optional.of(list.get(0));
+      });
+   }
+
+   public MutationResult updateEmployeeLastname(String oldlastname, String newlastname) {
       logger.info("EmployeeService.updateEmployeeLastname: " + oldlastname + " -> " + newlastname);
-      List<Employee> list = employeeRepo.findByLastname(oldlastname);
-      if (!list.isEmpty()) {
+      return retry.execute("updateEmployeeLastname", () -> {
+         List<Employee> list = findByLastname(oldlastname);
+         if (list.isEmpty()) {
+            return MutationResult.none();
+         }
          Employee employee = list.get(0);
+         EmployeeSummary previous = EmployeeSummary.of(employee);
          employee.setLastname(newlastname);
-         employeeRepo.save(employee);
-      }
-      return employeeRepo.findAll();
+         lastnameFilter.add(newlastname);
+         Employee saved = employeeRepo.save(employee);
+         eventPublisher.publishEvent(EmployeeChangedEvent.changed(previous, saved));
+         return MutationResult.of(saved);
+      });
    }
 
-   @Transactional
-   public Iterable<Employee> deleteEmployeeByLastname(String lastname) {
+   public MutationResult deleteEmployeeByLastname(String lastname) {
       logger.info("EmployeeService.deleteEmployeeByLastname: " + lastname);
-      List<Employee> list = employeeRepo.findByLastname(lastname);
-      if (!list.isEmpty()) {
-         employeeRepo.delete(list.get(0));
+      return retry.execute("deleteEmployeeByLastname", () -> {
+         List<Employee> list = findByLastname(lastname);
+         if (list.isEmpty()) {
+            return MutationResult.none();
+         }
+         Employee employee = list.get(0);
+         employeeRepo.delete(employee);
+         eventPublisher.publishEvent(EmployeeChangedEvent.deleted(employee));
+         return MutationResult.of(employee);
+      });
+   }
+
+   /**
+    * Rename all employees with the given lastname in one UPDATE statement.
+    */
+   public int renameAllEmployees(String oldlastname, String newlastname) {
+      logger.info("EmployeeService.renameAllEmployees: " + oldlastname + " -> " + newlastname);
+      if (lastnameFilter.isAbsent(oldlastname)) {
+         return 0;
       }
-      return employeeRepo.findAll();
+      lastnameFilter.add(newlastname);
+      return publishBulk(employeeRepo.renameAllByLastname(oldlastname, newlastname));
    }
 
+   /**
+    * Delete all employees with the given lastname in one DELETE statement.
+    */
+   public int deleteAllEmployeesByLastname(String lastname) {
+      logger.info("EmployeeService.deleteAllEmployeesByLastname: " + lastname);
+      if (lastnameFilter.isAbsent(lastname)) {
+         return 0;
+      }
+      return publishBulk(employeeRepo.deleteAllByLastname(lastname));
+   }
+
+   /**
+    * Move the employees with the given ids to the department in one UPDATE statement.
+    */
+   public int moveEmployeesToDepartment(Collection<Integer> employeeIds, Department department) {
+      logger.info("EmployeeService.moveEmployeesToDepartment: " + employeeIds + " -> " + department);
+      if (employeeIds.isEmpty()) {
+         return 0;
+      }
+      return publishBulk(employeeRepo.moveAllToDepartment(employeeIds, department));
+   }
+
+   /**
+    * Save a new or changed employee. The previous state of a changed employee is not known,
+    * use transferEmployee to change the department.
+    */
    public Employee saveEmployee(Employee employee) {
       logger.info("EmployeeService.saveEmployee: " + employee);
-      return employeeRepo.save(employee);
+      boolean created = employee.getId() == 0;
+      lastnameFilter.add(employee.getLastname());
+      Employee saved = employeeRepo.save(employee);
+      eventPublisher.publishEvent(created ? EmployeeChangedEvent.created(saved) : EmployeeChangedEvent.bulk());
+      return saved;
+   }
+
+   /**
+    * Insert new employees in one transaction, the inserts are sent as JDBC batches.
+    * Publishes one created event per employee. The saved employees are returned in the given order.
+    */
+   @Transactional
+   public List<Employee> createEmployees(List<Employee> employees) {
+      logger.info("EmployeeService.createEmployees: " + employees.size());
+      List<Employee> saved = new ArrayList<>(employees.size());
+      for (Employee employee : employees) {
+         lastnameFilter.add(employee.getLastname());
+         saved.add(employeeRepo.save(employee));
+      }
+      saved.forEach(employee -> eventPublisher.publishEvent(EmployeeChangedEvent.created(employee)));
+      return saved;
    }
 
+   /**
+    * Move an employee to another department, the event carries the old and the new department.
+    * Fails with an OptimisticLockingFailureException when the employee was changed since it was read,
+    * use BusinessService.transferEmployeeToDepartment to retry with a fresh employee.
+    */
+   @Transactional
+   public Employee transferEmployee(Employee employee, Department department) {
+      logger.info("EmployeeService.transferEmployee: " + employee + " -> " + department);
+      EmployeeSummary previous = EmployeeSummary.of(employee);
+      employee.setDepartment(department);
+      Employee saved = employeeRepo.save(employee);
+      eventPublisher.publishEvent(EmployeeChangedEvent.changed(previous, saved));
+      return saved;
+   }
+
+   @Transactional(readOnly = true)
    public List<Employee> findEmployeesByDepartment(Department department) {
       logger.info("EmployeeService.findEmployeesByDepartment: " + department);
       return employeeRepo.findByDepartment(department);
    }
+
+   /**
+    * The employees of a department as summaries, with the version of the department taken before they were read.
+    */
+   public Versioned<List<EmployeeSummary>> findEmployeeSummariesByDepartment(Department department) {
+      logger.info("EmployeeService.findEmployeeSummariesByDepartment: " + department);
+      DataVersion version = dataVersions.getDepartmentVersion(department.getId());
+      return reads.execute("findEmployeeSummariesByDepartment", List.of(department.getId(), version.getEtag()),
+            () -> dataVersions.read(version, () -> List.copyOf(employeeRepo.findSummariesByDepartmentId(department.getId()))));
+   }
+
+   /**
+    * Pass all employees as summaries to the consumer, ordered by id. Every chunk of chunkSize
+    * employees is read with its own short keyset query, no transaction is held during the scan.
+    */
+   public long scanEmployeeSummaries(int chunkSize, Consumer<EmployeeSummary> consumer) {
+      logger.info("EmployeeService.scanEmployeeSummaries in chunks of " + chunkSize);
+      long rows = 0;
+      for (EmployeeSummary employee : new KeysetScan<>(0, chunkSize, employeeRepo::findSummariesAfter, EmployeeSummary::getId)) {
+         consumer.accept(employee);
+         rows++;
+      }
+      return rows;
+   }
+
+   /**
+    * Pass all employees as summaries to the consumer in one streaming read, ordered by id.
+    * Unlike scanEmployeeSummaries one read-only transaction is held until the whole table is read.
+    */
+   @Transactional(readOnly = true)
+   public long streamEmployeeSummaries(Consumer<EmployeeSummary> consumer) {
+      logger.info("EmployeeService.streamEmployeeSummaries");
+      long rows = 0;
+      try (Stream<EmployeeSummary> employees = employeeRepo.streamSummaries()) {
+         Iterator<EmployeeSummary> iterator = employees.iterator();
+         while (iterator.hasNext()) {
+            consumer.accept(iterator.next());
+            rows++;
+         }
+      }
+      return rows;
+   }
+
+   /**
+    * All employees with an id greater than afterId as summaries, ordered by id. Nothing is read here,
+    * the employees are read in chunks of MAX_PAGE_SIZE while the result is iterated, e.g. while
+    * a view is rendered, so a large result is never held in memory at once.
+    */
+   public Iterable<EmployeeSummary> iterateEmployeeSummariesAfter(int afterId) {
+      logger.info("EmployeeService.iterateEmployeeSummariesAfter: " + afterId);
+      return new KeysetScan<>(afterId, MAX_PAGE_SIZE, employeeRepo::findSummariesAfter, EmployeeSummary::getId);
+   }
+
+   /**
+    * The employees of a department as summaries, read in chunks while iterated like iterateEmployeeSummariesAfter.
+    */
+   public Iterable<EmployeeSummary> iterateEmployeeSummariesByDepartment(Department department) {
+      logger.info("EmployeeService.iterateEmployeeSummariesByDepartment: " + department);
+      int departmentId = department.getId();
+      return new KeysetScan<>(0, MAX_PAGE_SIZE,
+            (after, limit) -> employeeRepo.findSummariesByDepartmentIdAfter(departmentId, after, limit),
+            EmployeeSummary::getId);
+   }
+
+   /**
+    * Bulk import in one transaction. After every batchSize employees the inserts are flushed
+    * as one JDBC batch and the persistence context is cleared, so memory stays flat.
+    * The batch size comes from the request and must be between 1 and MAX_IMPORT_BATCH_SIZE.
+    */
+   @Transactional
+   public ImportReport importEmployees(Stream<Employee> employees, int batchSize) {
+      logger.info("EmployeeService.importEmployees with batch size " + batchSize);
+      if (batchSize < 1 || batchSize > MAX_IMPORT_BATCH_SIZE) {
+         throw new IllegalArgumentException("batchSize must be between 1 and " + MAX_IMPORT_BATCH_SIZE + ", was " + batchSize + ".");
+      }
+      long start = System.nanoTime();
+      long rows = 0;
+      List<Employee> batch = new ArrayList<>();
+      Iterator<Employee> iterator = employees.iterator();
+      while (iterator.hasNext()) {
+         Employee employee = iterator.next();
+         lastnameFilter.add(employee.getLastname());
+         batch.add(employee);
+         if (batch.size() == batchSize || !iterator.hasNext()) {
+            employeeRepo.saveAll(batch);
+            employeeRepo.flushAndClear();
+            rows += batch.size();
+            batch.clear();
+         }
+      }
+      if (rows > 0) {
+         eventPublisher.publishEvent(EmployeeChangedEvent.bulk());
+      }
+      ImportReport report = new ImportReport(rows, (System.nanoTime() - start) / 1_000_000);
+      logger.info("EmployeeService.importEmployees: " + report);
+      return report;
+   }
+
+   /**
+    * Export all employees with their department in one read-only transaction.
+    * Rows are streamed with a JDBC fetch size and detached after they are written,
+    * so heap usage does not grow with the table size.
+    */
+   @Transactional(readOnly = true)
+   public long exportEmployees(ExportFormat format, Writer writer) throws IOException {
+      logger.info("EmployeeService.exportEmployees as " + format);
+      long rows = 0;
+      if (format.header() != null) {
+         writer.write(format.header());
+         writer.write('\n');
+      }
+      try (Stream<Employee> employees = employeeRepo.streamAll()) {
+         Iterator<Employee> iterator = employees.iterator();
+         while (iterator.hasNext()) {
+            Employee employee = iterator.next();
+            writer.write(format.line(EmployeeSummary.of(employee)));
+            writer.write('\n');
+            employeeRepo.detach(employee);
+            if (++rows % EmployeeRepository.STREAM_FETCH_SIZE == 0) {
+               writer.flush();
+            }
+         }
+      }
+      writer.flush();
+      logger.info("EmployeeService.exportEmployees: " + rows + " rows");
+      return rows;
+   }
+
+   public long getExecutedReads() {
+      return reads.getExecuted();
+   }
+
+   public long getCoalescedReads() {
+      return reads.getCoalesced();
+   }
+
+   private List<Employee> findByLastname(String lastname) {
+      if (lastnameFilter.isAbsent(lastname)) {
+         return List.of();
+      }
+      List<Employee> list = employeeRepo.findByLastname(lastname);
+      if (list.isEmpty()) {
+         lastnameFilter.recordFalsePositive();
+      }
+      return list;
+   }
+
+   private int publishBulk(int count) {
+      if (count > 0) {
+         eventPublisher.publishEvent(EmployeeChangedEvent.bulk());
+      }
+      return count;
+   }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * ExportFormat
+ * Line based formats of the employee export.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+public enum ExportFormat {
+   NDJSON("application/x-ndjson", "ndjson"),
+   CSV("text/csv", "csv");
+
+   private static final ObjectMapper objectMapper = new ObjectMapper();
+   private static final String CSV_HEADER = "id,firstname,lastname,departmentId,departmentDescription";
+
+   private final String contentType;
+   private final String fileExtension;
+
+   ExportFormat(String contentType, String fileExtension) {
+      this.contentType = contentType;
+      this.fileExtension = fileExtension;
+   }
+
+   public String getContentType() {
+      return contentType;
+   }
+
+   public String getFileExtension() {
+      return fileExtension;
+   }
+
+   /**
+    * First line of the export or null if the format has none.
+    */
+   public String header() {
+      return this == CSV ? CSV_HEADER : null;
+   }
+
+   public String line(EmployeeSummary employee) {
+      if (this == NDJSON) {
+         try {
+            return objectMapper.writeValueAsString(employee);
+         } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Employee " + employee.getId() + " cannot be exported", e);
+         }
+      }
+      return employee.getId() + "," + csv(employee.getFirstname()) + "," + csv(employee.getLastname()) + ","
+            + (employee.getDepartmentId() == null ? "" : employee.getDepartmentId()) + ","
+            + csv(employee.getDepartmentDescription());
+   }
+
+   private static String csv(String value) {
+      if (value == null) {
+         return "";
+      }
+      if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+         return "\"" + value.replace("\"", "\"\"") + "\"";
+      }
+      return value;
+   }
+}
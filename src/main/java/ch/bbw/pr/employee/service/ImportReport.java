@@ -0,0 +1,24 @@
+package ch.bbw.pr.employee.service;
+
+import lombok.Value;
+
+/**
+ * ImportReport
+ * Number of imported employees and the throughput of a bulk import.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Value
+public class ImportReport {
+   long rows;
+   long durationMillis;
+
+   public double getRowsPerSecond() {
+      return rows * 1000.0 / Math.max(1, durationMillis);
+   }
+
+   @Override
+   public String toString() {
+      return String.format("Imported %d employees in %d ms (%.0f rows/s)", rows, durationMillis, getRowsPerSecond());
+   }
+}
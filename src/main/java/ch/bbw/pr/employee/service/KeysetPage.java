@@ -0,0 +1,36 @@
+package ch.bbw.pr.employee.service;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * KeysetPage
+ * One page of a keyset (seek) pagination. The cursor is the last seen id,
+ * nextAfter is null when there are no further rows.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Value
+public class KeysetPage<T> {
+   List<T> content;
+   Integer nextAfter;
+
+   /**
+    * Build a page from rows fetched with limit pageSize + 1.
+    * The additional row only tells whether a next page exists and is not returned.
+    */
+   public static <T> KeysetPage<T> of(List<T> rows, int pageSize, ToIntFunction<T> idOf) {
+      if (rows.size() <= pageSize) {
+         return new KeysetPage<>(List.copyOf(rows), null);
+      }
+      List<T> content = List.copyOf(rows.subList(0, pageSize));
+      return new KeysetPage<>(content, idOf.applyAsInt(content.get(pageSize - 1)));
+   }
+
+   @Override
+   public String toString() {
+      return content.toString();
+   }
+}
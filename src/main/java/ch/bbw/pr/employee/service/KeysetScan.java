@@ -0,0 +1,65 @@
+package ch.bbw.pr.employee.service;
+
+import org.springframework.data.domain.Limit;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * KeysetScan
+ * Lazy iteration over rows ordered by id. The rows are read chunk by chunk with a keyset query
+ * while they are iterated, only the current chunk is held in memory. Every iterator starts a new scan.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+class KeysetScan<T> implements Iterable<T> {
+   private final int afterId;
+   private final int chunkSize;
+   // (after, limit) -> rows with an id greater than after, ordered by id
+   private final BiFunction<Integer, Limit, List<T>> fetch;
+   private final ToIntFunction<T> idOf;
+
+   KeysetScan(int afterId, int chunkSize, BiFunction<Integer, Limit, List<T>> fetch, ToIntFunction<T> idOf) {
+      if (chunkSize <= 0) {
+         throw new IllegalArgumentException("chunkSize must be positive");
+      }
+      this.afterId = afterId;
+      this.chunkSize = chunkSize;
+      this.fetch = fetch;
+      this.idOf = idOf;
+   }
+
+   @Override
+   public Iterator<T> iterator() {
+      return new Iterator<>() {
+         private int after = afterId;
+         private Iterator<T> chunk = Collections.emptyIterator();
+         private boolean lastChunk;
+
+         @Override
+         public boolean hasNext() {
+            while (!chunk.hasNext() && !lastChunk) {
+               List<T> rows = fetch.apply(after, Limit.of(chunkSize));
+               lastChunk = rows.size() < chunkSize;
+               if (!rows.isEmpty()) {
+                  after = idOf.applyAsInt(rows.get(rows.size() - 1));
+               }
+               chunk = rows.iterator();
+            }
+            return chunk.hasNext();
+         }
+
+         @Override
+         public T next() {
+            if (!hasNext()) {
+               throw new NoSuchElementException();
+            }
+            return chunk.next();
+         }
+      };
+   }
+}
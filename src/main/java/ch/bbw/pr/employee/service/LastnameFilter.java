@@ -0,0 +1,181 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import ch.bbw.pr.employee.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * LastnameFilter
+ * Bloom filter over the lastnames of all employees, so lookups of unknown lastnames are answered
+ * without a query. The filter is filled once after startup and every write adds the new lastname
+ * before it is saved. Bits are never removed, deleted or renamed lastnames only cause false positives,
+ * which are counted and reset by a restart. Only valid while this application is the only writer.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Service
+public class LastnameFilter {
+   private static final Logger logger = LoggerFactory.getLogger(LastnameFilter.class);
+   // the key is coarser than the utf8mb4 collations of the lastname column (case, accents,
+   // trailing spaces, ß = s or ss), so the filter never denies a lastname the database would match
+   private static final Pattern SHARP_S = Pattern.compile("[sß]+");
+   private static final int SCAN_CHUNK_SIZE = 1000;
+
+   private final EmployeeRepository employeeRepo;
+   private final long expectedNames;
+   // null when disabled
+   private final AtomicLongArray bits;
+   private final long bitCount;
+   private final int hashCount;
+   private volatile boolean ready;
+   private final LongAdder avoided = new LongAdder();
+   private final LongAdder falsePositives = new LongAdder();
+
+   @Autowired
+   public LastnameFilter(EmployeeRepository employeeRepo,
+                         @Value("${employee.lastname-filter.enabled:true}") boolean enabled,
+                         @Value("${employee.lastname-filter.expected-names:1000000}") long expectedNames,
+                         @Value("${employee.lastname-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+      if (expectedNames <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+         throw new IllegalArgumentException("expected-names must be positive and false-positive-rate between 0 and 1");
+      }
+      this.employeeRepo = employeeRepo;
+      this.expectedNames = expectedNames;
+      // optimal size and number of hashes: m = -n ln(p) / ln(2)^2, k = m / n ln(2)
+      long words = (long) Math.ceil(-expectedNames * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)) / Long.SIZE);
+      this.bits = enabled ? new AtomicLongArray(Math.toIntExact(words)) : null;
+      this.bitCount = words * Long.SIZE;
+      this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedNames * Math.log(2)));
+   }
+
+   /**
+    * Fill the filter with the lastnames of all employees. Writes during the scan are not lost,
+    * they add their lastname to the same bits.
+    */
+   @EventListener(ApplicationReadyEvent.class)
+   public void build() {
+      if (bits == null) {
+         return;
+      }
+      long start = System.nanoTime();
+      try {
+         long rows = 0;
+         int after = 0;
+         while (true) {
+            List<EmployeeSummary> chunk = employeeRepo.findSummariesAfter(after, Limit.of(SCAN_CHUNK_SIZE));
+            for (EmployeeSummary employee : chunk) {
+               add(employee.getLastname());
+            }
+            rows += chunk.size();
+            if (chunk.size() < SCAN_CHUNK_SIZE) {
+               break;
+            }
+            after = chunk.get(chunk.size() - 1).getId();
+         }
+         ready = true;
+         logger.info("LastnameFilter.build: " + rows + " employees in " + (System.nanoTime() - start) / 1_000_000 + " ms, "
+               + bitCount / 8 / 1024 + " KB with " + hashCount + " hashes");
+         if (rows > expectedNames) {
+            logger.warn("LastnameFilter.build: more employees than employee.lastname-filter.expected-names ("
+                  + expectedNames + "), the false positive rate is higher than configured");
+         }
+      } catch (RuntimeException e) {
+         logger.warn("LastnameFilter.build failed, lookups by lastname query the database: " + e);
+      }
+   }
+
+   /**
+    * Add a lastname, must be called before the employee with this lastname is saved.
+    */
+   public void add(String lastname) {
+      if (bits == null || lastname == null) {
+         return;
+      }
+      long hash = hash(key(lastname));
+      for (int i = 0; i < hashCount; i++) {
+         long bit = index(hash, i);
+         long mask = 1L << bit;
+         int word = (int) (bit >>> 6);
+         if ((bits.get(word) & mask) == 0) {
+            bits.getAndAccumulate(word, mask, (current, set) -> current | set);
+         }
+      }
+   }
+
+   /**
+    * True only when no employee has this lastname. False when the filter is not built yet or disabled,
+    * then the caller has to query the database.
+    */
+   public boolean isAbsent(String lastname) {
+      if (!ready || lastname == null) {
+         return false;
+      }
+      long hash = hash(key(lastname));
+      for (int i = 0; i < hashCount; i++) {
+         long bit = index(hash, i);
+         if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+            avoided.increment();
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Count a lookup that passed the filter and found no employee.
+    */
+   public void recordFalsePositive() {
+      if (ready) {
+         falsePositives.increment();
+      }
+   }
+
+   public boolean isReady() {
+      return ready;
+   }
+
+   public long getAvoidedQueries() {
+      return avoided.sum();
+   }
+
+   public long getFalsePositives() {
+      return falsePositives.sum();
+   }
+
+   static String key(String lastname) {
+      return SHARP_S.matcher(EmployeeSearchIndex.normalize(lastname.stripTrailing())).replaceAll("s");
+   }
+
+   private long index(long hash, int i) {
+      // double hashing, the k indexes are derived from the two halves of one 64-bit hash
+      long combined = (int) hash + (long) i * (int) (hash >>> 32);
+      return Math.floorMod(combined, bitCount);
+   }
+
+   private static long hash(String key) {
+      // FNV-1a followed by the murmur3 finalizer, which spreads the bits of short keys
+      long hash = 0xcbf29ce484222325L;
+      for (int i = 0; i < key.length(); i++) {
+         hash ^= key.charAt(i);
+         hash *= 0x100000001b3L;
+      }
+      hash ^= hash >>> 33;
+      hash *= 0xff51afd7ed558ccdL;
+      hash ^= hash >>> 33;
+      hash *= 0xc4ceb9fe1a85ec53L;
+      hash ^= hash >>> 33;
+      return hash;
+   }
+}
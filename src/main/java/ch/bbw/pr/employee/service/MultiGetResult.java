@@ -0,0 +1,23 @@
+package ch.bbw.pr.employee.service;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * MultiGetResult
+ * Result of a lookup by many ids: the found rows in the order of the requested ids
+ * and the ids that do not exist.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Value
+public class MultiGetResult<T> {
+   List<T> found;
+   List<Integer> missing;
+
+   @Override
+   public String toString() {
+      return missing.isEmpty() ? found.toString() : found + " missing: " + missing;
+   }
+}
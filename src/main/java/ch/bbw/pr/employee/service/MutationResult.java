@@ -0,0 +1,31 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.Employee;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * MutationResult
+ * The employees created, changed or deleted by a write operation and their count.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Value
+public class MutationResult {
+   List<Employee> employees;
+   int count;
+
+   public static MutationResult of(Employee employee) {
+      return new MutationResult(List.of(employee), 1);
+   }
+
+   public static MutationResult none() {
+      return new MutationResult(List.of(), 0);
+   }
+
+   @Override
+   public String toString() {
+      return count + " affected: " + employees;
+   }
+}
@@ -0,0 +1,102 @@
+package ch.bbw.pr.employee.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * OptimisticRetry
+ * Runs a read-modify-write in its own transaction and repeats it when the versioned update
+ * detects a concurrent change of the same employee. No rows are locked, a conflict costs a retry.
+ * Between attempts it waits a random time up to backoff * attempt, so the writers do not collide again.
+ * Inside an existing transaction the action runs once, the conflict is retried by the outermost caller.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Service
+public class OptimisticRetry {
+   private static final Logger logger = LoggerFactory.getLogger(OptimisticRetry.class);
+
+   private final TransactionTemplate transactionTemplate;
+   private final int maxAttempts;
+   private final long backoffNanos;
+   private final LongAdder committed = new LongAdder();
+   private final LongAdder conflicts = new LongAdder();
+   private final LongAdder failed = new LongAdder();
+
+   @Autowired
+   public OptimisticRetry(PlatformTransactionManager transactionManager,
+                          @Value("${employee.optimistic.max-attempts:3}") int maxAttempts,
+                          @Value("${employee.optimistic.backoff:10ms}") Duration backoff) {
+      if (maxAttempts < 1) {
+         throw new IllegalArgumentException("max-attempts must be at least 1");
+      }
+      this.transactionTemplate = new TransactionTemplate(transactionManager);
+      this.maxAttempts = maxAttempts;
+      this.backoffNanos = backoff.toNanos();
+   }
+
+   /**
+    * Execute the action in a new transaction, at most maxAttempts times. The action must read the
+    * entities it changes itself, a retry with the same stale entity would fail again.
+    * @throws OptimisticLockingFailureException when the last attempt failed
+    */
+   public <T> T execute(String operation, Supplier<T> action) {
+      if (TransactionSynchronizationManager.isActualTransactionActive()) {
+         return action.get();
+      }
+      for (int attempt = 1; ; attempt++) {
+         try {
+            T result = transactionTemplate.execute(status -> action.get());
+            committed.increment();
+            return result;
+         } catch (OptimisticLockingFailureException e) {
+            conflicts.increment();
+            if (attempt >= maxAttempts) {
+               failed.increment();
+               logger.warn("OptimisticRetry." + operation + ": concurrent change, giving up after " + attempt + " attempts");
+               throw e;
+            }
+            logger.info("OptimisticRetry." + operation + ": concurrent change in attempt " + attempt + ", retrying");
+            pause(attempt, e);
+         }
+      }
+   }
+
+   public long getCommitted() {
+      return committed.sum();
+   }
+
+   public long getConflicts() {
+      return conflicts.sum();
+   }
+
+   public long getFailed() {
+      return failed.sum();
+   }
+
+   private void pause(int attempt, OptimisticLockingFailureException conflict) {
+      if (backoffNanos <= 0) {
+         return;
+      }
+      try {
+         TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(backoffNanos * attempt + 1));
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         failed.increment();
+         throw conflict;
+      }
+   }
+}
@@ -0,0 +1,152 @@
+package ch.bbw.pr.employee.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ReloadableSnapshot
+ * In-memory snapshot of the employee table, loaded in the background after startup and updated by every
+ * EmployeeChangedEvent. A bulk event reloads it in the background while queries use the previous snapshot,
+ * the events arriving during a load are applied to the loaded snapshot before it replaces the current one.
+ * Requests to reload arriving during a load cause one more load.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+abstract class ReloadableSnapshot<S> {
+   private final Logger logger = LoggerFactory.getLogger(getClass());
+   private final boolean enabled;
+   private final ExecutorService loader;
+   private final AtomicBoolean reloadPending = new AtomicBoolean();
+   // changes are applied under the write lock, queries needing a stable snapshot hold the read lock
+   protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+   private volatile S snapshot;
+   private volatile boolean ready;
+   // while a reload runs: the events to apply to the loaded snapshot before it replaces the current one
+   private List<EmployeeChangedEvent> changedWhileLoading;
+
+   protected ReloadableSnapshot(String threadName, boolean enabled, S empty) {
+      this.enabled = enabled;
+      this.snapshot = empty;
+      this.loader = Executors.newSingleThreadExecutor(runnable -> {
+         Thread thread = new Thread(runnable, threadName);
+         thread.setDaemon(true);
+         return thread;
+      });
+   }
+
+   /**
+    * Read a new snapshot from the database, called on the loader thread.
+    */
+   protected abstract S load();
+
+   protected abstract void apply(S snapshot, EmployeeChangedEvent event);
+
+   // size of a loaded snapshot for the log
+   protected abstract String describe(S snapshot);
+
+   // checked after every change, e.g. to compact the snapshot
+   protected boolean needsReload(S snapshot) {
+      return false;
+   }
+
+   protected S snapshot() {
+      return snapshot;
+   }
+
+   /**
+    * False until the first load after startup completed.
+    */
+   public boolean isReady() {
+      return ready;
+   }
+
+   @EventListener(ApplicationReadyEvent.class)
+   public void onApplicationReady() {
+      requestReload();
+   }
+
+   @TransactionalEventListener(fallbackExecution = true)
+   public void onEmployeeChanged(EmployeeChangedEvent event) {
+      if (!enabled) {
+         return;
+      }
+      if (event.isBulk()) {
+         requestReload();
+         return;
+      }
+      boolean reload;
+      lock.writeLock().lock();
+      try {
+         apply(snapshot, event);
+         if (changedWhileLoading != null) {
+            changedWhileLoading.add(event);
+         }
+         reload = needsReload(snapshot);
+      } finally {
+         lock.writeLock().unlock();
+      }
+      if (reload) {
+         requestReload();
+      }
+   }
+
+   /**
+    * Reload the snapshot from the employee table in the background.
+    */
+   public void requestReload() {
+      if (enabled && reloadPending.compareAndSet(false, true)) {
+         loader.execute(() -> {
+            reloadPending.set(false);
+            reload();
+         });
+      }
+   }
+
+   @PreDestroy
+   public void shutdown() {
+      loader.shutdownNow();
+   }
+
+   void reload() {
+      String name = getClass().getSimpleName();
+      long start = System.nanoTime();
+      lock.writeLock().lock();
+      try {
+         changedWhileLoading = new ArrayList<>();
+      } finally {
+         lock.writeLock().unlock();
+      }
+      try {
+         S loaded = load();
+         lock.writeLock().lock();
+         try {
+            changedWhileLoading.forEach(event -> apply(loaded, event));
+            snapshot = loaded;
+            ready = true;
+         } finally {
+            lock.writeLock().unlock();
+         }
+         logger.info(name + ".reload: " + describe(loaded) + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+      } catch (RuntimeException e) {
+         logger.error(name + ".reload failed, the previous snapshot is kept", e);
+      } finally {
+         lock.writeLock().lock();
+         try {
+            changedWhileLoading = null;
+         } finally {
+            lock.writeLock().unlock();
+         }
+      }
+   }
+}
@@ -0,0 +1,74 @@
+package ch.bbw.pr.employee.service;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * SingleFlight
+ * Coalesces concurrent identical reads: the first caller executes the read, callers with the same
+ * name and argument arriving meanwhile wait for it and get the same result or exception.
+ * Nothing is cached after the read completed. Shared results must not be modified.
+ * Calls inside a transaction are executed on their own, they must see the writes of the transaction.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+public class SingleFlight {
+   private final ConcurrentHashMap<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+   private final LongAdder executed = new LongAdder();
+   private final LongAdder coalesced = new LongAdder();
+
+   @SuppressWarnings("unchecked")
+   public <V> V execute(String name, Object argument, Supplier<V> read) {
+      if (TransactionSynchronizationManager.isActualTransactionActive()) {
+         executed.increment();
+         return read.get();
+      }
+      List<Object> key = Arrays.asList(name, argument);
+      CompletableFuture<Object> own = new CompletableFuture<>();
+      CompletableFuture<Object> running = inFlight.putIfAbsent(key, own);
+      if (running != null) {
+         coalesced.increment();
+         return (V) await(running);
+      }
+      executed.increment();
+      try {
+         V result = read.get();
+         own.complete(result);
+         return result;
+      } catch (RuntimeException | Error e) {
+         own.completeExceptionally(e);
+         throw e;
+      } finally {
+         inFlight.remove(key, own);
+      }
+   }
+
+   public long getExecuted() {
+      return executed.sum();
+   }
+
+   public long getCoalesced() {
+      return coalesced.sum();
+   }
+
+   private static Object await(CompletableFuture<Object> running) {
+      try {
+         return running.join();
+      } catch (CompletionException e) {
+         if (e.getCause() instanceof RuntimeException cause) {
+            throw cause;
+         }
+         if (e.getCause() instanceof Error cause) {
+            throw cause;
+         }
+         throw e;
+      }
+   }
+}
@@ -0,0 +1,16 @@
+package ch.bbw.pr.employee.service;
+
+import lombok.Value;
+
+/**
+ * Versioned
+ * A read result with the data version taken before it was read. The result contains at least
+ * the writes counted in the version, so the version is a safe validator for conditional requests.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@Value
+public class Versioned<T> {
+   T content;
+   DataVersion version;
+}
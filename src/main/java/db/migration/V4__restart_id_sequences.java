@@ -0,0 +1,40 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * V4__restart_id_sequences
+ * V2 created the id sequences with a fixed start of 100. In databases with larger ids the pooled
+ * optimizer would hand out ids that already exist, so each sequence is restarted above the largest id
+ * of its table. Flyway finds the migration in db.migration next to the SQL migrations.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+public class V4__restart_id_sequences extends BaseJavaMigration {
+   // allocationSize of the sequence generators, the pooled optimizer uses the ids up to the sequence value
+   private static final long ALLOCATION_SIZE = 50;
+   private static final long MIN_START = 100;
+
+   @Override
+   public void migrate(Context context) throws SQLException {
+      try (Statement statement = context.getConnection().createStatement()) {
+         restartAboveMaxId(statement, "department", "department_seq");
+         restartAboveMaxId(statement, "employee", "employee_seq");
+      }
+   }
+
+   private static void restartAboveMaxId(Statement statement, String table, String sequence) throws SQLException {
+      long maxId;
+      try (ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+         result.next();
+         maxId = result.getLong(1);
+      }
+      long start = Math.max(MIN_START, maxId + ALLOCATION_SIZE + 1);
+      statement.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + start);
+   }
+}
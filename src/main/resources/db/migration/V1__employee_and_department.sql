@@ -0,0 +1,17 @@
+-- Schema of employeedepartment.sql. Databases imported from the dump are baselined at this version.
+
+CREATE TABLE department (
+  id int(11) NOT NULL AUTO_INCREMENT,
+  description varchar(25) NOT NULL,
+  PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE TABLE employee (
+  id int(11) NOT NULL AUTO_INCREMENT,
+  firstname varchar(50) NOT NULL,
+  lastname varchar(50) NOT NULL,
+  departmentidfs int(11) DEFAULT NULL,
+  PRIMARY KEY (id),
+  KEY departmentidx (departmentidfs),
+  CONSTRAINT employee_ibfk_1 FOREIGN KEY (departmentidfs) REFERENCES department (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,12 @@
+-- Sequences for the ids (Hibernate pooled optimizer, INCREMENT BY = allocationSize),
+-- older imports of employeedepartment.sql do not have them.
+CREATE SEQUENCE IF NOT EXISTS department_seq START WITH 100 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS employee_seq START WITH 100 INCREMENT BY 50;
+
+-- findByLastname, renameAllByLastname and deleteAllByLastname
+CREATE INDEX employee_lastnameidx ON employee (lastname);
+
+-- findByDescription returns at most one department, the entity allows 255 characters.
+-- Fails on duplicate descriptions, they have to be merged before the migration.
+ALTER TABLE department MODIFY description varchar(255) NOT NULL;
+CREATE UNIQUE INDEX department_descriptionidx ON department (description);
@@ -0,0 +1,2 @@
+-- Optimistic locking of employees, every update checks and increments the version
+ALTER TABLE employee ADD COLUMN version int NOT NULL DEFAULT 0;
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @SpringBootTest
 // ChatGPT: Schaltet automatische DB Konfiguration aus, weil DB gar nicht läuft
@@ -20,6 +21,9 @@ class ApplicationTests {
    @MockBean
    private DepartmentRepository departmentRepository;
 
+   @MockBean
+   private PlatformTransactionManager transactionManager;
+
    @Test
    void contextLoads() {
    }
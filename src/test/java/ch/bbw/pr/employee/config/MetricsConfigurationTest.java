@@ -0,0 +1,130 @@
+package ch.bbw.pr.employee.config;
+
+import ch.bbw.pr.employee.model.Department;
+import ch.bbw.pr.employee.repository.DepartmentRepository;
+import ch.bbw.pr.employee.service.AsyncBusinessService;
+import ch.bbw.pr.employee.service.BusinessService;
+import ch.bbw.pr.employee.service.DepartmentService;
+import ch.bbw.pr.employee.service.EmployeeGroupCommit;
+import ch.bbw.pr.employee.service.EmployeeService;
+import ch.bbw.pr.employee.service.LastnameFilter;
+import ch.bbw.pr.employee.service.OptimisticRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * MetricsConfigurationTest
+ * Prüft, dass die Zähler der Services als Micrometer Meter registriert werden
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@ExtendWith(MockitoExtension.class)
+class MetricsConfigurationTest {
+
+   @Mock
+   private DepartmentRepository departmentRepo;
+
+   private SimpleMeterRegistry registry;
+   private DepartmentService departmentService;
+
+   @BeforeEach
+   void setUp() {
+      registry = new SimpleMeterRegistry();
+      departmentService = new DepartmentService(departmentRepo, Duration.ofMinutes(5), 100);
+   }
+
+   @Test
+   void departmentCacheMetrics_shouldReportHitsAndMisses() {
+      new MetricsConfiguration().departmentCacheMetrics(departmentService).bindTo(registry);
+      when(departmentRepo.findByDescription("IT"))
+              .thenReturn(Optional.of(Department.builder().id(1).description("IT").build()));
+
+      departmentService.findByDescription("IT");
+      departmentService.findByDescription("IT");
+      departmentService.findByDescription("IT");
+
+      assertEquals(2, registry.get("department.cache.requests").tag("result", "hit").functionCounter().count());
+      assertEquals(1, registry.get("department.cache.requests").tag("result", "miss").functionCounter().count());
+      assertEquals(1, registry.get("department.cache.size").gauge().value());
+   }
+
+   @Test
+   void readCoalescingMetrics_shouldReportExecutedAndCoalescedReads() {
+      EmployeeService employeeService = mock(EmployeeService.class);
+      BusinessService businessService = mock(BusinessService.class);
+      when(employeeService.getExecutedReads()).thenReturn(10L);
+      when(employeeService.getCoalescedReads()).thenReturn(4L);
+      when(businessService.getCoalescedReads()).thenReturn(7L);
+
+      new MetricsConfiguration().readCoalescingMetrics(employeeService, businessService).bindTo(registry);
+
+      assertEquals(10, registry.get("service.reads").tags("service", "EmployeeService", "result", "executed").functionCounter().count());
+      assertEquals(4, registry.get("service.reads").tags("service", "EmployeeService", "result", "coalesced").functionCounter().count());
+      assertEquals(7, registry.get("service.reads").tags("service", "BusinessService", "result", "coalesced").functionCounter().count());
+   }
+
+   @Test
+   void lastnameFilterMetrics_shouldReportAvoidedQueries() {
+      LastnameFilter lastnameFilter = mock(LastnameFilter.class);
+      when(lastnameFilter.getAvoidedQueries()).thenReturn(12L);
+      when(lastnameFilter.getFalsePositives()).thenReturn(1L);
+
+      new MetricsConfiguration().lastnameFilterMetrics(lastnameFilter).bindTo(registry);
+
+      assertEquals(12, registry.get("employee.lastname.lookups").tag("result", "avoided").functionCounter().count());
+      assertEquals(1, registry.get("employee.lastname.lookups").tag("result", "false-positive").functionCounter().count());
+   }
+
+   @Test
+   void optimisticRetryMetrics_shouldReportConflicts() {
+      OptimisticRetry retry = mock(OptimisticRetry.class);
+      when(retry.getCommitted()).thenReturn(100L);
+      when(retry.getConflicts()).thenReturn(5L);
+      when(retry.getFailed()).thenReturn(1L);
+
+      new MetricsConfiguration().optimisticRetryMetrics(retry).bindTo(registry);
+
+      assertEquals(100, registry.get("employee.optimistic.writes").tag("result", "committed").functionCounter().count());
+      assertEquals(5, registry.get("employee.optimistic.writes").tag("result", "conflict").functionCounter().count());
+      assertEquals(1, registry.get("employee.optimistic.writes").tag("result", "failed").functionCounter().count());
+   }
+
+   @Test
+   void groupCommitMetrics_shouldReportBatchesAndQueueWait() {
+      EmployeeGroupCommit groupCommit = mock(EmployeeGroupCommit.class);
+      when(groupCommit.getBatches()).thenReturn(4L);
+      when(groupCommit.getRows()).thenReturn(200L);
+      when(groupCommit.getQueueWaitMillis()).thenReturn(1000.0);
+
+      new MetricsConfiguration().groupCommitMetrics(groupCommit).bindTo(registry);
+
+      assertEquals(4, registry.get("employee.group-commit.batches").functionCounter().count());
+      assertEquals(200, registry.get("employee.group-commit.rows").functionCounter().count());
+      assertEquals(200, registry.get("employee.group-commit.queue.wait").functionTimer().count());
+      assertEquals(5, registry.get("employee.group-commit.queue.wait").functionTimer().mean(TimeUnit.MILLISECONDS));
+   }
+
+   @Test
+   void asyncExecutorMetrics_shouldReportQueueAndRejections() {
+      AsyncBusinessService asyncService = mock(AsyncBusinessService.class);
+      when(asyncService.getQueueSize()).thenReturn(7);
+      when(asyncService.getRejected()).thenReturn(2L);
+
+      new MetricsConfiguration().asyncExecutorMetrics(asyncService).bindTo(registry);
+
+      assertEquals(7, registry.get("employee.async.queue.size").gauge().value());
+      assertEquals(0, registry.get("employee.async.active").gauge().value());
+      assertEquals(2, registry.get("employee.async.rejected").functionCounter().count());
+   }
+}
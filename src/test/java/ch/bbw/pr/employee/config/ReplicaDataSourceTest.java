@@ -0,0 +1,74 @@
+package ch.bbw.pr.employee.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReplicaDataSourceTest
+ * Prüft die Round-Robin Verteilung auf die Replicas und den Fallback auf die Primary Datenbank
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@ExtendWith(MockitoExtension.class)
+class ReplicaDataSourceTest {
+
+   @Mock
+   private DataSource primary;
+   @Mock
+   private DataSource replica1;
+   @Mock
+   private DataSource replica2;
+   @Mock
+   private Connection primaryConnection;
+   @Mock
+   private Connection replica1Connection;
+   @Mock
+   private Connection replica2Connection;
+
+   @Test
+   void getConnection_shouldAlternateReplicas() throws SQLException {
+      when(replica1.getConnection()).thenReturn(replica1Connection);
+      when(replica2.getConnection()).thenReturn(replica2Connection);
+      ReplicaDataSource dataSource = new ReplicaDataSource(primary, List.of(replica1, replica2), Duration.ofSeconds(30));
+
+      assertSame(replica1Connection, dataSource.getConnection());
+      assertSame(replica2Connection, dataSource.getConnection());
+      assertSame(replica1Connection, dataSource.getConnection());
+      verifyNoInteractions(primary);
+   }
+
+   @Test
+   void getConnection_whenReplicaFails_shouldSkipItUntilRetryAfter() throws SQLException {
+      when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+      when(replica2.getConnection()).thenReturn(replica2Connection);
+      ReplicaDataSource dataSource = new ReplicaDataSource(primary, List.of(replica1, replica2), Duration.ofSeconds(30));
+
+      assertSame(replica2Connection, dataSource.getConnection());
+      assertSame(replica2Connection, dataSource.getConnection());
+      assertSame(replica2Connection, dataSource.getConnection());
+      verify(replica1, times(1)).getConnection();
+      verifyNoInteractions(primary);
+   }
+
+   @Test
+   void getConnection_whenNoReplicaAvailable_shouldUsePrimary() throws SQLException {
+      when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+      when(primary.getConnection()).thenReturn(primaryConnection);
+      ReplicaDataSource dataSource = new ReplicaDataSource(primary, List.of(replica1), Duration.ZERO);
+
+      assertSame(primaryConnection, dataSource.getConnection());
+      assertSame(primaryConnection, dataSource.getConnection());
+      verify(replica1, times(2)).getConnection();
+   }
+}
@@ -0,0 +1,55 @@
+package ch.bbw.pr.employee.config;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ReplicaRoutingConfigurationTest
+ * Prüft mit drei H2 in-memory Datenbanken (Primary und zwei Replicas), welche Datenbank
+ * lesende und schreibende Transaktionen verwenden.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;MODE=MariaDB;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "datasource.replicas.enabled=true",
+        "datasource.replicas.urls=jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:replica2;DB_CLOSE_DELAY=-1"
+})
+class ReplicaRoutingConfigurationTest {
+
+   @Autowired
+   private EntityManager entityManager;
+
+   @Autowired
+   private PlatformTransactionManager transactionManager;
+
+   @Test
+   void readOnlyTransaction_shouldUseReplicasRoundRobin() {
+      List<String> databases = List.of(currentDatabase(true), currentDatabase(true), currentDatabase(true));
+
+      assertEquals(Set.of("REPLICA1", "REPLICA2"), Set.of(databases.get(0), databases.get(1)));
+      assertEquals(databases.get(0), databases.get(2));
+   }
+
+   @Test
+   void writeTransaction_shouldUsePrimary() {
+      assertEquals("PRIMARY", currentDatabase(false));
+   }
+
+   private String currentDatabase(boolean readOnly) {
+      TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+      transaction.setReadOnly(readOnly);
+      return transaction.execute(status ->
+              (String) entityManager.createNativeQuery("select database()").getSingleResult());
+   }
+}
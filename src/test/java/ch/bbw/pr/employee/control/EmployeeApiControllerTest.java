@@ -0,0 +1,318 @@
+package ch.bbw.pr.employee.control;
+
+import ch.bbw.pr.employee.model.Department;
+import ch.bbw.pr.employee.model.DepartmentHeadcount;
+import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import ch.bbw.pr.employee.repository.DepartmentRepository;
+import ch.bbw.pr.employee.repository.EmployeeRepository;
+import ch.bbw.pr.employee.service.AsyncBusinessService;
+import ch.bbw.pr.employee.service.BusinessService;
+import ch.bbw.pr.employee.service.DataVersionService;
+import ch.bbw.pr.employee.service.DepartmentService;
+import ch.bbw.pr.employee.service.DepartmentStatistics;
+import ch.bbw.pr.employee.service.DepartmentStatisticsService;
+import ch.bbw.pr.employee.service.EmployeeColumnStore;
+import ch.bbw.pr.employee.service.EmployeeGroupCommit;
+import ch.bbw.pr.employee.service.EmployeeSearchIndex;
+import ch.bbw.pr.employee.service.EmployeeService;
+import ch.bbw.pr.employee.service.LastnameFilter;
+import ch.bbw.pr.employee.service.OptimisticRetry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * EmployeeApiControllerTest - Integration Tests der JSON API mit MockMvc
+ * Repositories werden gemockt, Services sind echt wie im ViewControllerTest
+ * Endpunkte mit CompletableFuture werden asynchron ausgeführt, daher performAsync
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@WebMvcTest(EmployeeApiController.class)
+@Import({EmployeeService.class, BusinessService.class, DepartmentService.class, DepartmentStatisticsService.class,
+        DataVersionService.class, OptimisticRetry.class, EmployeeGroupCommit.class, AsyncBusinessService.class})
+class EmployeeApiControllerTest {
+
+   @Autowired
+   private MockMvc mockMvc;
+
+   @MockBean
+   private EmployeeRepository employeeRepo;
+
+   @MockBean
+   private DepartmentRepository departmentRepo;
+
+   @MockBean
+   private EmployeeSearchIndex searchIndex;
+
+   @MockBean
+   private EmployeeColumnStore columnStore;
+
+   @MockBean
+   private LastnameFilter lastnameFilter;
+
+   @MockBean
+   private PlatformTransactionManager transactionManager;
+
+   @Autowired
+   private DepartmentService departmentService;
+
+   private Department itDept;
+   private Employee emp1;
+   private EmployeeSummary sum1;
+
+   @BeforeEach
+   void setUp() {
+      departmentService.invalidateCache();
+      itDept = Department.builder().id(1).description("IT").build();
+      emp1 = Employee.builder().id(1).firstname("Max").lastname("Mustermann").department(itDept).build();
+      sum1 = EmployeeSummary.of(emp1);
+   }
+
+   // startet den Request und führt ihn nach Abschluss des CompletableFuture zu Ende
+   private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+      MvcResult result = mockMvc.perform(builder)
+              .andExpect(request().asyncStarted())
+              .andReturn();
+      return mockMvc.perform(asyncDispatch(result));
+   }
+
+   @Test
+   void findAll_shouldReturnPageAsJson() throws Exception {
+      when(employeeRepo.findSummariesAfter(0, Limit.of(51))).thenReturn(List.of(sum1));
+
+      performAsync(get("/api/employees"))
+              .andExpect(status().isOk())
+              .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+              .andExpect(jsonPath("$.content[0].lastname").value("Mustermann"))
+              .andExpect(jsonPath("$.content[0].departmentDescription").value("IT"))
+              .andExpect(jsonPath("$.nextAfter").doesNotExist())
+              .andExpect(header().exists(HttpHeaders.ETAG));
+   }
+
+   @Test
+   void findAll_whenNotModified_shouldReturn304WithoutQuery() throws Exception {
+      when(employeeRepo.findSummariesAfter(0, Limit.of(51))).thenReturn(List.of(sum1));
+      String etag = performAsync(get("/api/employees")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+      mockMvc.perform(get("/api/employees").header(HttpHeaders.IF_NONE_MATCH, etag))
+              .andExpect(request().asyncStarted())
+              .andDo(result -> mockMvc.perform(asyncDispatch(result))
+                      .andExpect(status().isNotModified())
+                      .andExpect(header().string(HttpHeaders.ETAG, etag)));
+
+      verify(employeeRepo, times(1)).findSummariesAfter(0, Limit.of(51));
+   }
+
+   @Test
+   void readById_whenEmployeeNotExists_shouldReturn404() throws Exception {
+      when(employeeRepo.findSummaryById(99)).thenReturn(Optional.empty());
+
+      performAsync(get("/api/employees/99"))
+              .andExpect(status().isNotFound())
+              .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON))
+              .andExpect(jsonPath("$.detail").value(containsString("99")));
+   }
+
+   @Test
+   void readByIds_shouldReturnFoundAndMissing() throws Exception {
+      when(employeeRepo.findSummariesByIdIn(List.of(1, 99))).thenReturn(List.of(EmployeeSummary.of(emp1)));
+
+      mockMvc.perform(get("/api/employees/by-ids").param("ids", "1,99"))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$.found[0].id").value(1))
+              .andExpect(jsonPath("$.missing[0]").value(99));
+   }
+
+   @Test
+   void create_shouldReturn201WithLocation() throws Exception {
+      when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
+      when(employeeRepo.save(any(Employee.class))).thenReturn(emp1);
+
+      performAsync(post("/api/employees")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"firstname\":\"Max\",\"lastname\":\"Mustermann\",\"departmentDescription\":\"IT\"}"))
+              .andExpect(status().isCreated())
+              .andExpect(header().string(HttpHeaders.LOCATION, org.hamcrest.Matchers.endsWith("/api/employees/1")))
+              .andExpect(jsonPath("$.firstname").value("Max"))
+              .andExpect(jsonPath("$.departmentId").value(1));
+   }
+
+   @Test
+   void create_whenDepartmentNotExists_shouldReturn404() throws Exception {
+      when(departmentRepo.findByDescription("Unknown")).thenReturn(Optional.empty());
+
+      performAsync(post("/api/employees")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"firstname\":\"Max\",\"lastname\":\"Mustermann\",\"departmentDescription\":\"Unknown\"}"))
+              .andExpect(status().isNotFound())
+              .andExpect(jsonPath("$.detail").value(containsString("Unknown")));
+
+      verify(employeeRepo, never()).save(any());
+   }
+
+   @Test
+   void create_withoutLastname_shouldReturn400() throws Exception {
+      mockMvc.perform(post("/api/employees")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"firstname\":\"Max\",\"departmentDescription\":\"IT\"}"))
+              .andExpect(status().isBadRequest());
+
+      verify(employeeRepo, never()).save(any());
+   }
+
+   @Test
+   void transfer_whenBothExist_shouldReturn204() throws Exception {
+      Department hrDept = Department.builder().id(2).description("HR").build();
+      when(employeeRepo.findWithDepartmentById(1)).thenReturn(Optional.of(emp1));
+      when(departmentRepo.findByDescription("HR")).thenReturn(Optional.of(hrDept));
+      when(employeeRepo.save(any(Employee.class))).thenReturn(emp1);
+
+      performAsync(put("/api/employees/1/department")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"departmentDescription\":\"HR\"}"))
+              .andExpect(status().isNoContent());
+   }
+
+   @Test
+   void transfer_withoutDepartmentDescription_shouldReturn400() throws Exception {
+      mockMvc.perform(put("/api/employees/1/department")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{}"))
+              .andExpect(status().isBadRequest())
+              .andExpect(jsonPath("$.detail").value(containsString("departmentDescription is required")));
+
+      verify(departmentRepo, never()).findByDescription(any());
+   }
+
+   @Test
+   void transferAll_withoutEmployeeIds_shouldReturn400() throws Exception {
+      mockMvc.perform(post("/api/employees/transfer")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"departmentDescription\":\"HR\"}"))
+              .andExpect(status().isBadRequest())
+              .andExpect(jsonPath("$.detail").value(containsString("employeeIds and departmentDescription are required")));
+      mockMvc.perform(post("/api/employees/transfer")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"employeeIds\":[],\"departmentDescription\":\"HR\"}"))
+              .andExpect(status().isBadRequest());
+
+      verify(departmentRepo, never()).findByDescription(any());
+   }
+
+   @Test
+   void rename_whenConflictPersists_shouldReturn409() throws Exception {
+      when(employeeRepo.findByLastname("Mustermann")).thenReturn(List.of(emp1));
+      when(employeeRepo.save(any(Employee.class))).thenThrow(new ObjectOptimisticLockingFailureException(Employee.class, 1));
+
+      performAsync(patch("/api/employees/by-lastname/Mustermann")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"lastname\":\"Neumann\"}"))
+              .andExpect(status().isConflict())
+              .andExpect(jsonPath("$.detail").value(containsString("changed at the same time")));
+   }
+
+   @Test
+   void rename_all_shouldReturnCount() throws Exception {
+      when(employeeRepo.renameAllByLastname("Mustermann", "Neumann")).thenReturn(2);
+
+      performAsync(patch("/api/employees/by-lastname/Mustermann").param("all", "true")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"lastname\":\"Neumann\"}"))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$.count").value(2))
+              .andExpect(jsonPath("$.employees", hasSize(0)));
+   }
+
+   @Test
+   void delete_whenEmployeeNotExists_shouldReturn404() throws Exception {
+      when(employeeRepo.findByLastname("Unknown")).thenReturn(List.of());
+
+      performAsync(delete("/api/employees/by-lastname/Unknown"))
+              .andExpect(status().isNotFound())
+              .andExpect(jsonPath("$.count").value(0));
+   }
+
+   @Test
+   void findByDepartment_shouldReturnJsonArray() throws Exception {
+      when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
+      when(employeeRepo.findSummariesByDepartmentIdAfter(1, 0, Limit.of(EmployeeService.MAX_PAGE_SIZE)))
+              .thenReturn(List.of(sum1));
+
+      mockMvc.perform(get("/api/departments/IT/employees"))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$", hasSize(1)))
+              .andExpect(jsonPath("$[0].lastname").value("Mustermann"));
+   }
+
+   @Test
+   void findByDepartment_whenDepartmentNotExists_shouldReturn404() throws Exception {
+      when(departmentRepo.findByDescription("Unknown")).thenReturn(Optional.empty());
+
+      mockMvc.perform(get("/api/departments/Unknown/employees"))
+              .andExpect(status().isNotFound())
+              .andExpect(jsonPath("$.detail").value(containsString("Unknown")));
+   }
+
+   @Test
+   void importEmployees_whenBatchSizeNotPositive_shouldReturn400() throws Exception {
+      mockMvc.perform(post("/api/employees/import")
+                      .param("batchSize", "0")
+                      .contentType("text/csv")
+                      .content("Max,Mustermann,IT\n"))
+              .andExpect(status().isBadRequest())
+              .andExpect(jsonPath("$.detail").value(containsString("batchSize must be between 1 and 10000")));
+
+      verify(employeeRepo, never()).saveAll(anyList());
+   }
+
+   @Test
+   void analyticsDepartments_shouldReturnHeadcountsOfTheColumnStore() throws Exception {
+      when(columnStore.isReady()).thenReturn(true);
+      when(columnStore.countByDepartment(any())).thenReturn(new DepartmentStatistics(List.of(new DepartmentHeadcount(1, "IT", 3)), 1));
+
+      mockMvc.perform(get("/api/analytics/departments").param("lastname", "mu"))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$.departments[0].description").value("IT"))
+              .andExpect(jsonPath("$.departments[0].headcount").value(3))
+              .andExpect(jsonPath("$.unassigned").value(1));
+   }
+
+   @Test
+   void analyticsCount_whenColumnStoreNotLoaded_shouldReturn503() throws Exception {
+      when(columnStore.isReady()).thenReturn(false);
+
+      mockMvc.perform(get("/api/analytics/count").param("departmentId", "1"))
+              .andExpect(status().isServiceUnavailable());
+
+      verify(columnStore, never()).count(any());
+   }
+}
@@ -1,26 +1,44 @@
 package ch.bbw.pr.employee.control;
 
 import ch.bbw.pr.employee.model.Department;
+import ch.bbw.pr.employee.model.DepartmentHeadcount;
 import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
 import ch.bbw.pr.employee.repository.DepartmentRepository;
 import ch.bbw.pr.employee.repository.EmployeeRepository;
 import ch.bbw.pr.employee.service.BusinessService;
+import ch.bbw.pr.employee.service.DataVersionService;
+import ch.bbw.pr.employee.service.DepartmentService;
+import ch.bbw.pr.employee.service.DepartmentStatisticsService;
+import ch.bbw.pr.employee.service.EmployeeGroupCommit;
+import ch.bbw.pr.employee.service.EmployeeSearchIndex;
 import ch.bbw.pr.employee.service.EmployeeService;
+import ch.bbw.pr.employee.service.LastnameFilter;
+import ch.bbw.pr.employee.service.OptimisticRetry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
@@ -32,7 +50,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * @version 02.10.2025
  */
 @WebMvcTest(ViewController.class)
-@Import({EmployeeService.class, BusinessService.class})
+@Import({EmployeeService.class, BusinessService.class, DepartmentService.class, DepartmentStatisticsService.class,
+        DataVersionService.class, OptimisticRetry.class, EmployeeGroupCommit.class})
 class ViewControllerTest {
 
    @Autowired
@@ -44,15 +63,35 @@ class ViewControllerTest {
    @MockBean
    private DepartmentRepository departmentRepo;
 
+   @MockBean
+   private EmployeeSearchIndex searchIndex;
+
+   @MockBean
+   private LastnameFilter lastnameFilter;
+
+   @MockBean
+   private PlatformTransactionManager transactionManager;
+
+   @Autowired
+   private DepartmentService departmentService;
+
+   @Autowired
+   private DepartmentStatisticsService statisticsService;
+
    private Department itDept, hrDept;
    private Employee emp1, emp2;
+   private EmployeeSummary sum1, sum2;
 
    @BeforeEach
    void setUp() {
+      departmentService.invalidateCache();
+      statisticsService.invalidate();
       itDept = Department.builder().id(1).description("IT").build();
       hrDept = Department.builder().id(2).description("HR").build();
       emp1 = Employee.builder().id(1).firstname("Max").lastname("Mustermann").department(itDept).build();
       emp2 = Employee.builder().id(2).firstname("Anna").lastname("Schmidt").department(itDept).build();
+      sum1 = EmployeeSummary.of(emp1);
+      sum2 = EmployeeSummary.of(emp2);
    }
 
    @Test
@@ -63,8 +102,8 @@ class ViewControllerTest {
    }
 
    @Test
-   void findAll_shouldReturnAllEmployees() throws Exception {
-      when(employeeRepo.findAll()).thenReturn(Arrays.asList(emp1, emp2));
+   void findAll_shouldReturnFirstPage() throws Exception {
+      when(employeeRepo.findSummariesAfter(0, Limit.of(51))).thenReturn(Arrays.asList(sum1, sum2));
 
       mockMvc.perform(get("/findAll"))
               .andExpect(status().isOk())
@@ -73,26 +112,118 @@ class ViewControllerTest {
               .andExpect(model().attribute("information", hasItem(
                       allOf(
                               hasProperty("firstname", is("Max")),
-                              hasProperty("department", hasProperty("description", is("IT")))
+                              hasProperty("departmentDescription", is("IT"))
                       )
-              )));
+              )))
+              .andExpect(model().attribute("nextAfter", nullValue()));
+
+      verify(employeeRepo).findSummariesAfter(0, Limit.of(51));
+      verify(employeeRepo, never()).findAll();
+   }
+
+   @Test
+   void findAll_withCursorAndSize_shouldReturnPageAndNextCursor() throws Exception {
+      when(employeeRepo.findSummariesAfter(0, Limit.of(2))).thenReturn(Arrays.asList(sum1, sum2));
+
+      mockMvc.perform(get("/findAll").param("after", "0").param("size", "1"))
+              .andExpect(status().isOk())
+              .andExpect(model().attribute("information", hasSize(1)))
+              .andExpect(model().attribute("nextAfter", is(1)));
+   }
+
+   @Test
+   void findAll_withSizeOutOfRange_shouldKeepTheEffectivePageSize() throws Exception {
+      when(employeeRepo.findSummariesAfter(0, Limit.of(EmployeeService.MAX_PAGE_SIZE + 1))).thenReturn(List.of(sum1, sum2));
+      when(employeeRepo.findSummariesAfter(0, Limit.of(2))).thenReturn(List.of(sum1, sum2));
+
+      mockMvc.perform(get("/findAll").param("size", "100000"))
+              .andExpect(status().isOk())
+              .andExpect(model().attribute("size", is(EmployeeService.MAX_PAGE_SIZE)));
+      mockMvc.perform(get("/findAll").param("size", "0"))
+              .andExpect(status().isOk())
+              .andExpect(model().attribute("size", is(1)))
+              .andExpect(content().string(containsString("size=1")));
+   }
+
+   @Test
+   void findAll_asTable_shouldRenderAllRowsWhileIterating() throws Exception {
+      when(employeeRepo.findSummariesAfter(0, Limit.of(EmployeeService.MAX_PAGE_SIZE))).thenReturn(List.of(sum1, sum2));
+
+      mockMvc.perform(get("/findAll").param("render", "table"))
+              .andExpect(status().isOk())
+              .andExpect(model().attributeExists("rows"))
+              .andExpect(content().string(containsString("<td>Mustermann</td>")))
+              .andExpect(content().string(containsString("<td>Schmidt</td>")))
+              .andExpect(content().string(not(containsString("<textarea"))));
+
+      verify(employeeRepo).findSummariesAfter(0, Limit.of(EmployeeService.MAX_PAGE_SIZE));
+   }
+
+   @Test
+   void findAll_shouldSendETagAndLastModified() throws Exception {
+      when(employeeRepo.findSummariesAfter(0, Limit.of(51))).thenReturn(List.of(sum1));
+
+      mockMvc.perform(get("/findAll"))
+              .andExpect(status().isOk())
+              .andExpect(header().exists(HttpHeaders.ETAG))
+              .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+              .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+   }
+
+   @Test
+   void findAll_whenNotModified_shouldReturn304WithoutQuery() throws Exception {
+      when(employeeRepo.findSummariesAfter(0, Limit.of(51))).thenReturn(List.of(sum1));
+      String etag = mockMvc.perform(get("/findAll")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+      mockMvc.perform(get("/findAll").header(HttpHeaders.IF_NONE_MATCH, etag))
+              .andExpect(status().isNotModified());
+
+      verify(employeeRepo, times(1)).findSummariesAfter(0, Limit.of(51));
+   }
+
+   @Test
+   void findAll_afterUpdate_shouldReturnNewPage() throws Exception {
+      when(employeeRepo.findSummariesAfter(0, Limit.of(51))).thenReturn(List.of(sum1));
+      when(employeeRepo.findByLastname("Mustermann")).thenReturn(List.of(emp1));
+      when(employeeRepo.save(any(Employee.class))).thenReturn(emp1);
+      String etag = mockMvc.perform(get("/findAll")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+      mockMvc.perform(get("/update").param("oldlastname", "Mustermann").param("newlastname", "Neumann"));
 
-      verify(employeeRepo).findAll();
+      mockMvc.perform(get("/findAll").header(HttpHeaders.IF_NONE_MATCH, etag))
+              .andExpect(status().isOk())
+              .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+   }
+
+   @Test
+   void findEmployeesByDepartment_whenNotModified_shouldReturn304WithoutQuery() throws Exception {
+      when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
+      when(employeeRepo.findSummariesByDepartmentId(1)).thenReturn(List.of(sum1, sum2));
+      String etag = mockMvc.perform(get("/findEmployeesByDepartment").param("departmentDescription", "IT"))
+              .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+      mockMvc.perform(get("/findEmployeesByDepartment").param("departmentDescription", "IT")
+                      .header(HttpHeaders.IF_NONE_MATCH, etag))
+              .andExpect(status().isNotModified());
+
+      verify(employeeRepo, times(1)).findSummariesByDepartmentId(1);
    }
 
    @Test
    void readById_whenEmployeeExists_shouldReturnEmployee() throws Exception {
-      when(employeeRepo.findById(1)).thenReturn(Optional.of(emp1));
+      when(employeeRepo.findSummaryById(1)).thenReturn(Optional.of(sum1));
 
       mockMvc.perform(get("/readById").param("id", "1"))
               .andExpect(status().isOk())
               .andExpect(model().attribute("information", hasProperty("firstname", is("Max"))))
-              .andExpect(model().attribute("information", hasProperty("department", hasProperty("description", is("IT")))));
+              .andExpect(model().attribute("information", hasProperty("departmentDescription", is("IT"))));
+
+      verify(employeeRepo, never()).findById(any());
    }
 
    @Test
    void readById_whenEmployeeNotExists_shouldReturnError() throws Exception {
-      when(employeeRepo.findById(999)).thenReturn(Optional.empty());
+      when(employeeRepo.findSummaryById(999)).thenReturn(Optional.empty());
 
       mockMvc.perform(get("/readById").param("id", "999"))
               .andExpect(model().attributeExists("error"))
@@ -101,39 +232,55 @@ class ViewControllerTest {
 
    @Test
    void readByName_whenEmployeeExists_shouldReturnEmployee() throws Exception {
-      when(employeeRepo.findByLastname("Mustermann")).thenReturn(Arrays.asList(emp1));
+      when(employeeRepo.findSummariesByLastname("Mustermann")).thenReturn(Arrays.asList(sum1));
 
       mockMvc.perform(get("/readByName").param("lastname", "Mustermann"))
               .andExpect(status().isOk())
               .andExpect(model().attribute("information", hasProperty("lastname", is("Mustermann"))))
-              .andExpect(model().attribute("information", hasProperty("department", hasProperty("description", is("IT")))));
+              .andExpect(model().attribute("information", hasProperty("departmentDescription", is("IT"))));
    }
 
    @Test
    void readByName_whenEmployeeNotExists_shouldReturnError() throws Exception {
-      when(employeeRepo.findByLastname("Unknown")).thenReturn(Arrays.asList());
+      when(employeeRepo.findSummariesByLastname("Unknown")).thenReturn(Arrays.asList());
 
       mockMvc.perform(get("/readByName").param("lastname", "Unknown"))
               .andExpect(model().attributeExists("error"));
    }
 
    @Test
-   void update_whenEmployeeExists_shouldUpdateAndReturnAll() throws Exception {
+   void update_whenEmployeeExists_shouldUpdateAndReturnUpdated() throws Exception {
       when(employeeRepo.findByLastname("Mustermann")).thenReturn(Arrays.asList(emp1));
       when(employeeRepo.save(any(Employee.class))).thenReturn(emp1);
-      when(employeeRepo.findAll()).thenReturn(Arrays.asList(emp1, emp2));
 
       mockMvc.perform(get("/update")
                       .param("oldlastname", "Mustermann")
                       .param("newlastname", "Neumann"))
               .andExpect(status().isOk())
-              .andExpect(model().attribute("information", hasSize(2)));
+              .andExpect(model().attribute("information", hasSize(1)))
+              .andExpect(model().attribute("information", hasItem(hasProperty("lastname", is("Neumann")))))
+              .andExpect(model().attribute("affected", is(1)));
+
+      verify(employeeRepo, never()).findAll();
+   }
+
+   @Test
+   void update_whenConflictPersists_shouldReturnError() throws Exception {
+      when(employeeRepo.findByLastname("Mustermann")).thenReturn(Arrays.asList(emp1));
+      when(employeeRepo.save(any(Employee.class))).thenThrow(new ObjectOptimisticLockingFailureException(Employee.class, 1));
+
+      mockMvc.perform(get("/update")
+                      .param("oldlastname", "Mustermann")
+                      .param("newlastname", "Neumann"))
+              .andExpect(status().isOk())
+              .andExpect(model().attribute("error", containsString("changed at the same time")));
+
+      verify(employeeRepo, times(3)).save(any(Employee.class));
    }
 
    @Test
    void update_whenEmployeeNotExists_shouldReturnError() throws Exception {
       when(employeeRepo.findByLastname("Unknown")).thenReturn(Arrays.asList());
-      when(employeeRepo.findAll()).thenReturn(Arrays.asList());
 
       mockMvc.perform(get("/update")
                       .param("oldlastname", "Unknown")
@@ -142,25 +289,55 @@ class ViewControllerTest {
    }
 
    @Test
-   void delete_whenEmployeeExists_shouldDeleteAndReturnRemaining() throws Exception {
+   void delete_whenEmployeeExists_shouldDeleteAndReturnDeleted() throws Exception {
       when(employeeRepo.findByLastname("Mustermann")).thenReturn(Arrays.asList(emp1));
       doNothing().when(employeeRepo).delete(emp1);
-      when(employeeRepo.findAll()).thenReturn(Arrays.asList(emp2));
 
       mockMvc.perform(get("/delete").param("lastname", "Mustermann"))
               .andExpect(status().isOk())
-              .andExpect(model().attribute("information", hasSize(1)));
+              .andExpect(model().attribute("information", hasSize(1)))
+              .andExpect(model().attribute("information", hasItem(hasProperty("lastname", is("Mustermann")))))
+              .andExpect(model().attribute("affected", is(1)));
+
+      verify(employeeRepo, never()).findAll();
    }
 
    @Test
    void delete_whenEmployeeNotExists_shouldReturnError() throws Exception {
       when(employeeRepo.findByLastname("Unknown")).thenReturn(Arrays.asList());
-      when(employeeRepo.findAll()).thenReturn(Arrays.asList());
 
       mockMvc.perform(get("/delete").param("lastname", "Unknown"))
               .andExpect(model().attributeExists("error"));
    }
 
+   @Test
+   void updateAll_whenEmployeesExist_shouldReturnCount() throws Exception {
+      when(employeeRepo.renameAllByLastname("Mustermann", "Neumann")).thenReturn(2);
+
+      mockMvc.perform(get("/updateAll")
+                      .param("oldlastname", "Mustermann")
+                      .param("newlastname", "Neumann"))
+              .andExpect(status().isOk())
+              .andExpect(model().attribute("affected", is(2)));
+   }
+
+   @Test
+   void updateAll_whenEmployeeNotExists_shouldReturnError() throws Exception {
+      mockMvc.perform(get("/updateAll")
+                      .param("oldlastname", "Unknown")
+                      .param("newlastname", "Neumann"))
+              .andExpect(model().attributeExists("error"));
+   }
+
+   @Test
+   void deleteAll_whenEmployeesExist_shouldReturnCount() throws Exception {
+      when(employeeRepo.deleteAllByLastname("Mustermann")).thenReturn(2);
+
+      mockMvc.perform(get("/deleteAll").param("lastname", "Mustermann"))
+              .andExpect(status().isOk())
+              .andExpect(model().attribute("affected", is(2)));
+   }
+
    @Test
    void createEmployeeWithDepartment_whenDepartmentExists_shouldCreateEmployee() throws Exception {
       when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
@@ -188,17 +365,44 @@ class ViewControllerTest {
    @Test
    void findEmployeesByDepartment_whenDepartmentExists_shouldReturnEmployees() throws Exception {
       when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
-      when(employeeRepo.findByDepartment(itDept)).thenReturn(Arrays.asList(emp1));
+      when(employeeRepo.findSummariesByDepartmentId(1)).thenReturn(Arrays.asList(sum1));
 
       mockMvc.perform(get("/findEmployeesByDepartment")
                       .param("departmentDescription", "IT"))
               .andExpect(status().isOk())
               .andExpect(model().attribute("information", hasSize(1)))
               .andExpect(model().attribute("information", hasItem(
-                      hasProperty("department", hasProperty("description", is("IT")))
+                      hasProperty("departmentDescription", is("IT"))
               )));
    }
 
+   @Test
+   void findEmployeesByDepartment_asTable_shouldRenderRows() throws Exception {
+      when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
+      when(employeeRepo.findSummariesByDepartmentIdAfter(1, 0, Limit.of(EmployeeService.MAX_PAGE_SIZE)))
+              .thenReturn(List.of(sum1));
+
+      mockMvc.perform(get("/findEmployeesByDepartment")
+                      .param("departmentDescription", "IT")
+                      .param("render", "table"))
+              .andExpect(status().isOk())
+              .andExpect(model().attributeDoesNotExist("information"))
+              .andExpect(content().string(containsString("<td>Mustermann</td>")));
+
+      verify(employeeRepo, never()).findSummariesByDepartmentId(anyInt());
+   }
+
+   @Test
+   void findEmployeesByDepartment_asTable_whenDepartmentNotExists_shouldReturnError() throws Exception {
+      when(departmentRepo.findByDescription("Unknown")).thenReturn(Optional.empty());
+
+      mockMvc.perform(get("/findEmployeesByDepartment")
+                      .param("departmentDescription", "Unknown")
+                      .param("render", "table"))
+              .andExpect(model().attributeExists("error"))
+              .andExpect(model().attributeDoesNotExist("rows"));
+   }
+
    @Test
    void findEmployeesByDepartment_whenDepartmentNotExists_shouldReturnError() throws Exception {
       when(departmentRepo.findByDescription("Unknown")).thenReturn(Optional.empty());
@@ -221,6 +425,20 @@ class ViewControllerTest {
               .andExpect(model().attribute("information", containsString("transferred successfully")));
    }
 
+   @Test
+   void transferEmployee_whenConflictPersists_shouldReturnError() throws Exception {
+      when(employeeRepo.findById(1)).thenReturn(Optional.of(emp1));
+      when(departmentRepo.findByDescription("HR")).thenReturn(Optional.of(hrDept));
+      when(employeeRepo.save(any(Employee.class))).thenThrow(new ObjectOptimisticLockingFailureException(Employee.class, 1));
+
+      mockMvc.perform(get("/transferEmployee")
+                      .param("employeeId", "1")
+                      .param("newDepartmentDescription", "HR"))
+              .andExpect(status().isOk())
+              .andExpect(view().name("index.html"))
+              .andExpect(model().attribute("error", containsString("changed at the same time")));
+   }
+
    @Test
    void transferEmployee_whenEmployeeNotExists_shouldReturnError() throws Exception {
       when(employeeRepo.findById(999)).thenReturn(Optional.empty());
@@ -231,4 +449,133 @@ class ViewControllerTest {
                       .param("newDepartmentDescription", "HR"))
               .andExpect(model().attributeExists("error"));
    }
+
+   @Test
+   void importEmployees_shouldImportAndReturnReport() throws Exception {
+      when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
+
+      mockMvc.perform(post("/importEmployees")
+                      .contentType("text/csv")
+                      .content("Max,Mustermann,IT\nAnna,Schmidt,IT\n"))
+              .andExpect(status().isOk())
+              .andExpect(model().attribute("information", hasProperty("rows", is(2L))));
+
+      verify(employeeRepo).saveAll(anyList());
+   }
+
+   @Test
+   void importEmployees_whenDepartmentNotExists_shouldReturnError() throws Exception {
+      when(departmentRepo.findByDescription("Unknown")).thenReturn(Optional.empty());
+
+      mockMvc.perform(post("/importEmployees")
+                      .contentType("text/csv")
+                      .content("Max,Mustermann,Unknown\n"))
+              .andExpect(model().attribute("error", containsString("not found")));
+   }
+
+   @Test
+   void importEmployees_whenBatchSizeTooLarge_shouldReturnError() throws Exception {
+      mockMvc.perform(post("/importEmployees")
+                      .param("batchSize", "1000000000")
+                      .contentType("text/csv")
+                      .content("Max,Mustermann,IT\n"))
+              .andExpect(status().isOk())
+              .andExpect(model().attribute("error", containsString("batchSize must be between 1 and 10000")));
+
+      verify(employeeRepo, never()).saveAll(anyList());
+   }
+
+   @Test
+   void transferEmployees_whenDepartmentExists_shouldReturnCount() throws Exception {
+      when(departmentRepo.findByDescription("HR")).thenReturn(Optional.of(hrDept));
+      when(employeeRepo.moveAllToDepartment(List.of(1, 2), hrDept)).thenReturn(2);
+
+      mockMvc.perform(get("/transferEmployees")
+                      .param("employeeIds", "1,2")
+                      .param("newDepartmentDescription", "HR"))
+              .andExpect(status().isOk())
+              .andExpect(model().attribute("affected", is(2)));
+   }
+
+   @Test
+   void transferEmployees_whenDepartmentNotExists_shouldReturnError() throws Exception {
+      when(departmentRepo.findByDescription("Unknown")).thenReturn(Optional.empty());
+
+      mockMvc.perform(get("/transferEmployees")
+                      .param("employeeIds", "1,2")
+                      .param("newDepartmentDescription", "Unknown"))
+              .andExpect(model().attribute("error", containsString("not found")));
+   }
+
+   @Test
+   void search_shouldReturnMatches() throws Exception {
+      when(searchIndex.isReady()).thenReturn(true);
+      when(searchIndex.search("muster", 20)).thenReturn(List.of(sum1));
+
+      mockMvc.perform(get("/search").param("q", "muster"))
+              .andExpect(status().isOk())
+              .andExpect(model().attribute("information", contains(sum1)))
+              .andExpect(model().attributeDoesNotExist("error"));
+   }
+
+   @Test
+   void search_whenIndexNotReady_shouldWarn() throws Exception {
+      when(searchIndex.isReady()).thenReturn(false);
+
+      mockMvc.perform(get("/search").param("q", "muster"))
+              .andExpect(status().isOk())
+              .andExpect(model().attribute("error", containsString("being built")));
+   }
+
+   @Test
+   void readByIds_shouldReturnFoundAndReportMissing() throws Exception {
+      when(employeeRepo.findSummariesByIdIn(List.of(2, 1, 99))).thenReturn(List.of(sum1, sum2));
+
+      mockMvc.perform(get("/readByIds").param("ids", "2,1,99"))
+              .andExpect(status().isOk())
+              .andExpect(model().attribute("information", contains(sum2, sum1)))
+              .andExpect(model().attribute("error", containsString("[99]")));
+   }
+
+   @Test
+   void departmentStatistics_shouldShowHeadcounts() throws Exception {
+      when(employeeRepo.countPerDepartment()).thenReturn(List.of(new DepartmentHeadcount(1, "IT", 2)));
+      when(employeeRepo.countByDepartmentIsNull()).thenReturn(1L);
+
+      mockMvc.perform(get("/departmentStatistics"))
+              .andExpect(status().isOk())
+              .andExpect(view().name("index.html"))
+              .andExpect(model().attribute("information", hasProperty("total", is(3L))));
+   }
+
+   @Test
+   void departmentStatistics_asJson_shouldReturnHeadcounts() throws Exception {
+      when(employeeRepo.countPerDepartment()).thenReturn(List.of(new DepartmentHeadcount(1, "IT", 2)));
+      when(employeeRepo.countByDepartmentIsNull()).thenReturn(1L);
+
+      mockMvc.perform(get("/departmentStatistics").accept(MediaType.APPLICATION_JSON))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$.departments[0].description", is("IT")))
+              .andExpect(jsonPath("$.departments[0].headcount", is(2)))
+              .andExpect(jsonPath("$.unassigned", is(1)))
+              .andExpect(jsonPath("$.total", is(3)));
+   }
+
+   @Test
+   void export_asCsv_shouldStreamAllEmployees() throws Exception {
+      when(employeeRepo.streamAll()).thenReturn(Stream.of(emp1, emp2));
+
+      mockMvc.perform(get("/export").param("format", "csv"))
+              .andExpect(status().isOk())
+              .andExpect(content().contentTypeCompatibleWith("text/csv"))
+              .andExpect(content().string(containsString("2,Anna,Schmidt,1,IT")));
+   }
+
+   @Test
+   void export_withUnknownFormat_shouldReturnBadRequest() throws Exception {
+      mockMvc.perform(get("/export").param("format", "xml"))
+              .andExpect(status().isBadRequest());
+
+      verify(employeeRepo, never()).streamAll();
+   }
 }
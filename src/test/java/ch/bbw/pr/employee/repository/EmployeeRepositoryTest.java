@@ -0,0 +1,253 @@
+package ch.bbw.pr.employee.repository;
+
+import ch.bbw.pr.employee.model.Department;
+import ch.bbw.pr.employee.model.DepartmentHeadcount;
+import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EmployeeRepositoryTest
+ * Zählt mit den Hibernate Statistics die SQL Statements der Queries, die von den Endpoints verwendet werden.
+ * Läuft gegen eine H2 in-memory Datenbank im MariaDB Modus mit dem Schema der Flyway Migrationen.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class EmployeeRepositoryTest {
+
+   @Autowired
+   private TestEntityManager entityManager;
+
+   @Autowired
+   private EmployeeRepository employeeRepo;
+
+   private Statistics statistics;
+   private Department itDept;
+   private Department hrDept;
+   private Employee emp1;
+
+   @BeforeEach
+   void setUp() {
+      itDept = entityManager.persist(Department.builder().description("IT").build());
+      hrDept = entityManager.persist(Department.builder().description("HR").build());
+      emp1 = entityManager.persist(Employee.builder().firstname("Max").lastname("Mustermann").department(itDept).build());
+      entityManager.persist(Employee.builder().firstname("Anna").lastname("Schmidt").department(itDept).build());
+      entityManager.persist(Employee.builder().firstname("Eva").lastname("Mustermann").department(hrDept).build());
+      entityManager.persist(Employee.builder().firstname("Hans").lastname("Muster").build());
+      entityManager.flush();
+      entityManager.clear();
+
+      statistics = entityManager.getEntityManager().getEntityManagerFactory()
+              .unwrap(SessionFactory.class).getStatistics();
+      statistics.clear();
+   }
+
+   @Test
+   void findAll_forFindAllEndpoint_shouldUseOneStatement() {
+      List<Employee> employees = StreamSupport.stream(employeeRepo.findAll().spliterator(), false).toList();
+
+      assertEquals(4, employees.size());
+      employees.forEach(this::touchDepartment);
+      assertEquals(1, statistics.getPrepareStatementCount());
+   }
+
+   @Test
+   void findByIdGreaterThan_forFindAllEndpoint_shouldUseOneStatement() {
+      List<Employee> employees = employeeRepo.findByIdGreaterThanOrderByIdAsc(0, Limit.of(10));
+
+      assertEquals(4, employees.size());
+      employees.forEach(this::touchDepartment);
+      assertEquals(1, statistics.getPrepareStatementCount());
+   }
+
+   @Test
+   void findSummariesByIdIn_forReadByIdsEndpoint_shouldUseOneStatementWithoutEntities() {
+      List<EmployeeSummary> summaries = employeeRepo.findSummariesByIdIn(List.of(emp1.getId(), -1));
+
+      assertEquals(1, summaries.size());
+      assertEquals("Mustermann", summaries.get(0).getLastname());
+      assertEquals(1, statistics.getPrepareStatementCount());
+      assertEquals(0, statistics.getEntityLoadCount());
+   }
+
+   @Test
+   void findByLastname_forReadByNameEndpoint_shouldUseOneStatement() {
+      List<Employee> employees = employeeRepo.findByLastname("Mustermann");
+
+      assertEquals(2, employees.size());
+      employees.forEach(this::touchDepartment);
+      assertEquals(1, statistics.getPrepareStatementCount());
+   }
+
+   @Test
+   void findByDepartment_forFindEmployeesByDepartmentEndpoint_shouldUseOneStatement() {
+      List<Employee> employees = employeeRepo.findByDepartment(itDept);
+
+      assertEquals(2, employees.size());
+      employees.forEach(this::touchDepartment);
+      assertEquals(1, statistics.getPrepareStatementCount());
+   }
+
+   @Test
+   void findById_forReadByIdEndpoint_shouldLoadDepartmentLazily() {
+      Optional<Employee> employee = employeeRepo.findById(emp1.getId());
+
+      assertTrue(employee.isPresent());
+      assertFalse(Hibernate.isInitialized(employee.get().getDepartment()));
+      assertEquals(1, statistics.getPrepareStatementCount());
+   }
+
+   @Test
+   void findSummariesAfter_forFindAllEndpoint_shouldNotLoadEntities() {
+      List<EmployeeSummary> summaries = employeeRepo.findSummariesAfter(0, Limit.of(3));
+
+      assertEquals(3, summaries.size());
+      assertEquals("IT", summaries.get(0).getDepartmentDescription());
+      assertEquals(1, statistics.getPrepareStatementCount());
+      assertEquals(0, statistics.getEntityLoadCount());
+   }
+
+   @Test
+   void findSummaryById_forReadByIdEndpoint_shouldNotLoadEntities() {
+      Optional<EmployeeSummary> summary = employeeRepo.findSummaryById(emp1.getId());
+
+      assertTrue(summary.isPresent());
+      assertEquals("Mustermann", summary.get().getLastname());
+      assertEquals(0, statistics.getEntityLoadCount());
+   }
+
+   @Test
+   void findSummariesByLastname_forReadByNameEndpoint_shouldIncludeEmployeesWithoutDepartment() {
+      List<EmployeeSummary> summaries = employeeRepo.findSummariesByLastname("Muster");
+
+      assertEquals(1, summaries.size());
+      assertNull(summaries.get(0).getDepartmentId());
+      assertNull(summaries.get(0).getDepartmentDescription());
+   }
+
+   @Test
+   void findSummariesByDepartmentId_forFindEmployeesByDepartmentEndpoint_shouldNotLoadEntities() {
+      List<EmployeeSummary> summaries = employeeRepo.findSummariesByDepartmentId(itDept.getId());
+
+      assertEquals(2, summaries.size());
+      assertEquals(1, statistics.getPrepareStatementCount());
+      assertEquals(0, statistics.getEntityLoadCount());
+   }
+
+   @Test
+   void findSummariesByDepartmentIdAfter_forTableRendering_shouldContinueAfterTheCursor() {
+      List<EmployeeSummary> first = employeeRepo.findSummariesByDepartmentIdAfter(itDept.getId(), 0, Limit.of(1));
+      List<EmployeeSummary> second = employeeRepo.findSummariesByDepartmentIdAfter(itDept.getId(), first.get(0).getId(), Limit.of(1));
+
+      assertEquals(1, first.size());
+      assertEquals(1, second.size());
+      assertTrue(second.get(0).getId() > first.get(0).getId());
+      assertEquals(2, statistics.getPrepareStatementCount());
+      assertEquals(0, statistics.getEntityLoadCount());
+   }
+
+   @Test
+   void renameAllByLastname_forUpdateAllEndpoint_shouldUseOneStatement() {
+      int count = employeeRepo.renameAllByLastname("Mustermann", "Neumann");
+
+      assertEquals(2, count);
+      assertEquals(1, statistics.getPrepareStatementCount());
+      assertEquals(2, employeeRepo.findByLastname("Neumann").size());
+   }
+
+   @Test
+   void renameAllByLastname_shouldIncrementVersion_soStaleSaveFails() {
+      Employee stale = employeeRepo.findById(emp1.getId()).orElseThrow();
+      entityManager.detach(stale);
+
+      employeeRepo.renameAllByLastname("Mustermann", "Neumann");
+
+      assertEquals(stale.getVersion() + 1, employeeRepo.findById(emp1.getId()).orElseThrow().getVersion());
+      entityManager.clear();
+      stale.setFirstname("Maximilian");
+      assertThrows(ObjectOptimisticLockingFailureException.class, () -> employeeRepo.save(stale));
+   }
+
+   @Test
+   void save_shouldIncrementVersion() {
+      Employee employee = employeeRepo.findById(emp1.getId()).orElseThrow();
+      int version = employee.getVersion();
+
+      employee.setLastname("Neumann");
+      employeeRepo.save(employee);
+      entityManager.flush();
+
+      assertEquals(version + 1, employee.getVersion());
+   }
+
+   @Test
+   void deleteAllByLastname_forDeleteAllEndpoint_shouldUseOneStatement() {
+      int count = employeeRepo.deleteAllByLastname("Mustermann");
+
+      assertEquals(2, count);
+      assertEquals(1, statistics.getPrepareStatementCount());
+      assertTrue(employeeRepo.findByLastname("Mustermann").isEmpty());
+   }
+
+   @Test
+   void moveAllToDepartment_forTransferEmployeesEndpoint_shouldUseOneStatement() {
+      List<Integer> ids = employeeRepo.findSummariesByLastname("Mustermann").stream()
+              .map(EmployeeSummary::getId).toList();
+      statistics.clear();
+
+      int count = employeeRepo.moveAllToDepartment(ids, itDept);
+
+      assertEquals(2, count);
+      assertEquals(1, statistics.getPrepareStatementCount());
+      assertEquals(3, employeeRepo.findSummariesByDepartmentId(itDept.getId()).size());
+   }
+
+   @Test
+   void countPerDepartment_forDepartmentStatistics_shouldUseOneStatement() {
+      List<DepartmentHeadcount> headcounts = employeeRepo.countPerDepartment();
+
+      assertEquals(List.of(new DepartmentHeadcount(itDept.getId(), "IT", 2),
+              new DepartmentHeadcount(hrDept.getId(), "HR", 1)), headcounts);
+      assertEquals(1, statistics.getPrepareStatementCount());
+      assertEquals(0, statistics.getEntityLoadCount());
+      assertEquals(1, employeeRepo.countByDepartmentIsNull());
+   }
+
+   @Test
+   void streamAll_forExportEndpoint_shouldStreamOrderedWithDepartments() {
+      try (Stream<Employee> employees = employeeRepo.streamAll()) {
+         List<Employee> list = employees.peek(this::touchDepartment).toList();
+
+         assertEquals(4, list.size());
+         assertTrue(list.get(0).getId() < list.get(3).getId());
+      }
+      assertEquals(1, statistics.getPrepareStatementCount());
+   }
+
+   private void touchDepartment(Employee employee) {
+      if (employee.getDepartment() != null) {
+         assertNotNull(employee.getDepartment().getDescription());
+      }
+   }
+}
@@ -0,0 +1,63 @@
+package ch.bbw.pr.employee.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MigrationTest
+ * Wendet die Flyway Migrationen auf eine Datenbank mit bestehenden Daten an und prüft,
+ * dass die Sequenzen keine vergebenen Ids mehr liefern
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+class MigrationTest {
+
+   // erste Id, die der pooled Optimizer aus einem Sequenzwert vergibt (allocationSize 50)
+   private static long firstPooledId(Statement statement, String sequence) throws SQLException {
+      try (ResultSet result = statement.executeQuery("SELECT NEXT VALUE FOR " + sequence)) {
+         result.next();
+         return result.getLong(1) - 49;
+      }
+   }
+
+   private static Flyway flyway(String url, String target) {
+      return Flyway.configure().dataSource(url, "sa", "").target(target).load();
+   }
+
+   @Test
+   void migrate_withIdsAboveTheSequenceStart_shouldRestartTheSequencesAboveMaxId() throws SQLException {
+      String url = "jdbc:h2:mem:migration-existing;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+      flyway(url, "1").migrate();
+      try (Connection connection = DriverManager.getConnection(url, "sa", "");
+           Statement statement = connection.createStatement()) {
+         // Daten aus einer älteren Datenbank, vergeben ohne Sequenz
+         statement.execute("INSERT INTO department (id, description) VALUES (70, 'IT')");
+         statement.execute("INSERT INTO employee (id, firstname, lastname, departmentidfs) VALUES (60, 'Max', 'Muster', 70)");
+         statement.execute("INSERT INTO employee (id, firstname, lastname, departmentidfs) VALUES (500, 'Eva', 'Mustermann', 70)");
+
+         flyway(url, "latest").migrate();
+
+         assertTrue(firstPooledId(statement, "department_seq") > 70);
+         assertTrue(firstPooledId(statement, "employee_seq") > 500);
+      }
+   }
+
+   @Test
+   void migrate_onEmptyDatabase_shouldStartTheSequencesAt100() throws SQLException {
+      String url = "jdbc:h2:mem:migration-empty;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+      flyway(url, "latest").migrate();
+      try (Connection connection = DriverManager.getConnection(url, "sa", "");
+           Statement statement = connection.createStatement()) {
+         assertEquals(51, firstPooledId(statement, "department_seq"));
+         assertEquals(51, firstPooledId(statement, "employee_seq"));
+      }
+   }
+}
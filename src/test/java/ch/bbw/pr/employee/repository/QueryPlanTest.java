@@ -0,0 +1,160 @@
+package ch.bbw.pr.employee.repository;
+
+import ch.bbw.pr.employee.model.Department;
+import ch.bbw.pr.employee.model.Employee;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryPlanTest
+ * Führt für jede abgeleitete Query (findBy..., countBy...) von EmployeeRepository und DepartmentRepository
+ * ein EXPLAIN aus und schlägt fehl, wenn eine Tabelle vollständig gelesen wird.
+ * Läuft gegen H2 im MariaDB Modus mit dem Schema der Flyway Migrationen.
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ch.bbw.pr.employee.repository.QueryPlanTest$SqlRecorder")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class QueryPlanTest {
+
+   @Autowired
+   private TestEntityManager entityManager;
+
+   @Autowired
+   private EmployeeRepository employeeRepo;
+
+   @Autowired
+   private DepartmentRepository departmentRepo;
+
+   @Autowired
+   private DataSource dataSource;
+
+   private Department itDept;
+
+   @BeforeEach
+   void setUp() {
+      itDept = entityManager.persist(Department.builder().description("IT").build());
+      entityManager.persist(Employee.builder().firstname("Max").lastname("Mustermann").department(itDept).build());
+      entityManager.persist(Employee.builder().firstname("Hans").lastname("Muster").build());
+      entityManager.flush();
+      entityManager.clear();
+   }
+
+   private Map<String, Runnable> derivedQueries() {
+      Map<String, Runnable> queries = new LinkedHashMap<>();
+      queries.put("EmployeeRepository.findByLastname", () -> employeeRepo.findByLastname("Mustermann"));
+      queries.put("EmployeeRepository.findByDepartment", () -> employeeRepo.findByDepartment(itDept));
+      queries.put("EmployeeRepository.findWithDepartmentById", () -> employeeRepo.findWithDepartmentById(1));
+      queries.put("EmployeeRepository.findByIdGreaterThanOrderByIdAsc",
+              () -> employeeRepo.findByIdGreaterThanOrderByIdAsc(0, Limit.of(10)));
+      queries.put("EmployeeRepository.countByDepartmentIsNull", () -> employeeRepo.countByDepartmentIsNull());
+      queries.put("DepartmentRepository.findByDescription", () -> departmentRepo.findByDescription("IT"));
+      return queries;
+   }
+
+   @Test
+   void derivedQueries_shouldAllBeCovered() {
+      Set<String> declared = new TreeSet<>();
+      declared.addAll(derivedQueryMethods(EmployeeRepository.class));
+      declared.addAll(derivedQueryMethods(DepartmentRepository.class));
+
+      assertEquals(declared, new TreeSet<>(derivedQueries().keySet()),
+              "every derived query needs an entry in derivedQueries()");
+   }
+
+   @Test
+   void derivedQueries_shouldNotScanTables() throws SQLException {
+      List<String> scans = new ArrayList<>();
+      for (Map.Entry<String, Runnable> query : derivedQueries().entrySet()) {
+         SqlRecorder.STATEMENTS.clear();
+         query.getValue().run();
+         assertFalse(SqlRecorder.STATEMENTS.isEmpty(), query.getKey() + " executed no statement");
+         for (String sql : SqlRecorder.STATEMENTS) {
+            String plan = explain(sql);
+            if (plan.contains(".tableScan")) {
+               scans.add(query.getKey() + ":\n" + plan);
+            }
+         }
+      }
+
+      assertTrue(scans.isEmpty(), "full table scans:\n" + String.join("\n", scans));
+   }
+
+   private static List<String> derivedQueryMethods(Class<?> repository) {
+      return Arrays.stream(repository.getDeclaredMethods())
+              .filter(method -> !method.isAnnotationPresent(Query.class))
+              .filter(method -> !method.isDefault() && !method.isSynthetic())
+              .filter(method -> !isCrudMethod(method))
+              .map(method -> repository.getSimpleName() + "." + method.getName())
+              .collect(Collectors.toList());
+   }
+
+   private static boolean isCrudMethod(Method method) {
+      try {
+         CrudRepository.class.getMethod(method.getName(), method.getParameterTypes());
+         return true;
+      } catch (NoSuchMethodException e) {
+         return false;
+      }
+   }
+
+   private String explain(String sql) throws SQLException {
+      Connection connection = DataSourceUtils.getConnection(dataSource);
+      try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+         // the plan does not depend on the values, H2 converts them to the column types
+         int parameters = statement.getParameterMetaData().getParameterCount();
+         for (int i = 1; i <= parameters; i++) {
+            statement.setString(i, "1");
+         }
+         try (ResultSet result = statement.executeQuery()) {
+            result.next();
+            return result.getString(1);
+         }
+      } finally {
+         DataSourceUtils.releaseConnection(connection, dataSource);
+      }
+   }
+
+   /**
+    * Records the SQL of all statements Hibernate prepares.
+    */
+   public static class SqlRecorder implements StatementInspector {
+      static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+      @Override
+      public String inspect(String sql) {
+         STATEMENTS.add(sql);
+         return sql;
+      }
+   }
+}
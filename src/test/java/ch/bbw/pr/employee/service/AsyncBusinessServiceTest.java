@@ -0,0 +1,161 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.Department;
+import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.repository.DepartmentRepository;
+import ch.bbw.pr.employee.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * AsyncBusinessServiceTest
+ * Echte Services mit gemockten Repositories wie im BusinessServiceTest,
+ * geprüft werden die parallelen Lookups und der begrenzte Thread-Pool
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@ExtendWith(MockitoExtension.class)
+class AsyncBusinessServiceTest {
+
+   @Mock
+   private DepartmentRepository departmentRepo;
+
+   @Mock
+   private EmployeeRepository employeeRepo;
+
+   @Mock
+   private ApplicationEventPublisher eventPublisher;
+
+   @Mock
+   private LastnameFilter lastnameFilter;
+
+   @Mock
+   private PlatformTransactionManager transactionManager;
+
+   private EmployeeService employeeService;
+   private BusinessService businessService;
+   private DepartmentService departmentService;
+   private AsyncBusinessService asyncService;
+
+   private Department itDept, hrDept;
+   private Employee emp1;
+
+   @BeforeEach
+   void setUp() {
+      itDept = Department.builder().id(1).description("IT").build();
+      hrDept = Department.builder().id(2).description("HR").build();
+      emp1 = Employee.builder().id(1).firstname("Max").lastname("Mustermann").department(itDept).build();
+
+      OptimisticRetry retry = new OptimisticRetry(transactionManager, 3, Duration.ZERO);
+      departmentService = new DepartmentService(departmentRepo, Duration.ofMinutes(5), 100);
+      DataVersionService dataVersions = new DataVersionService(departmentService, transactionManager, false, Duration.ZERO);
+      employeeService = new EmployeeService(employeeRepo, departmentRepo, eventPublisher, lastnameFilter, retry, dataVersions);
+      businessService = new BusinessService(employeeService, departmentService, retry,
+              new EmployeeGroupCommit(employeeService, false, 100, Duration.ofMillis(5), 100, Duration.ofSeconds(5)), dataVersions);
+      asyncService = new AsyncBusinessService(employeeService, businessService, departmentService, 2, 10);
+   }
+
+   @AfterEach
+   void tearDown() {
+      asyncService.shutdown();
+   }
+
+   @Test
+   void transferEmployeeToDepartment_shouldLookUpEmployeeAndDepartmentInParallel() throws Exception {
+      // jeder Lookup wartet auf den anderen, nacheinander ausgeführt liefen beide in den Timeout
+      CountDownLatch bothRunning = new CountDownLatch(2);
+      when(employeeRepo.findWithDepartmentById(1)).thenAnswer(invocation -> {
+         bothRunning.countDown();
+         assertTrue(bothRunning.await(5, TimeUnit.SECONDS), "department lookup did not run in parallel");
+         return Optional.of(emp1);
+      });
+      when(departmentRepo.findByDescription("HR")).thenAnswer(invocation -> {
+         bothRunning.countDown();
+         assertTrue(bothRunning.await(5, TimeUnit.SECONDS), "employee lookup did not run in parallel");
+         return Optional.of(hrDept);
+      });
+      when(employeeRepo.save(any(Employee.class))).thenReturn(emp1);
+
+      assertTrue(asyncService.transferEmployeeToDepartment(1, "HR").get(10, TimeUnit.SECONDS));
+      assertEquals("HR", emp1.getDepartment().getDescription());
+      verify(employeeRepo, never()).findById(anyInt());
+   }
+
+   @Test
+   void transferEmployeeToDepartment_whenEmployeeNotExists_shouldReturnFalse() throws Exception {
+      when(employeeRepo.findWithDepartmentById(99)).thenReturn(Optional.empty());
+      when(departmentRepo.findByDescription("HR")).thenReturn(Optional.of(hrDept));
+
+      assertFalse(asyncService.transferEmployeeToDepartment(99, "HR").get(10, TimeUnit.SECONDS));
+      verify(employeeRepo, never()).save(any());
+   }
+
+   @Test
+   void transferEmployeeToDepartment_whenChangedAfterLookup_shouldRetryWithFreshEmployee() throws Exception {
+      Employee fresh = Employee.builder().id(1).firstname("Max").lastname("Mustermann").department(itDept).version(1).build();
+      when(employeeRepo.findWithDepartmentById(1)).thenReturn(Optional.of(emp1));
+      when(departmentRepo.findByDescription("HR")).thenReturn(Optional.of(hrDept));
+      when(employeeRepo.findById(1)).thenReturn(Optional.of(fresh));
+      when(employeeRepo.save(any(Employee.class)))
+              .thenThrow(new ObjectOptimisticLockingFailureException(Employee.class, 1))
+              .thenReturn(fresh);
+
+      assertTrue(asyncService.transferEmployeeToDepartment(1, "HR").get(10, TimeUnit.SECONDS));
+      assertEquals("HR", fresh.getDepartment().getDescription());
+      verify(employeeRepo, times(2)).save(any(Employee.class));
+   }
+
+   @Test
+   void createEmployeeWithDepartment_whenDepartmentNotExists_shouldFailTheFuture() {
+      when(departmentRepo.findByDescription("Unknown")).thenReturn(Optional.empty());
+
+      ExecutionException e = assertThrows(ExecutionException.class,
+              () -> asyncService.createEmployeeWithDepartment("Max", "Mustermann", "Unknown").get(10, TimeUnit.SECONDS));
+      assertInstanceOf(NoSuchElementException.class, e.getCause());
+   }
+
+   @Test
+   void operations_whenPoolAndQueueAreFull_shouldBeRejected() throws Exception {
+      AsyncBusinessService small = new AsyncBusinessService(employeeService, businessService, departmentService, 1, 1);
+      CountDownLatch release = new CountDownLatch(1);
+      when(employeeRepo.findSummaryById(anyInt())).thenAnswer(invocation -> {
+         release.await(5, TimeUnit.SECONDS);
+         return Optional.empty();
+      });
+      try {
+         CompletableFuture<?> running = small.getEmployeeSummaryById(1);
+         CompletableFuture<?> queued = small.getEmployeeSummaryById(2);
+         CompletableFuture<?> rejected = small.getEmployeeSummaryById(3);
+
+         ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+         assertInstanceOf(RejectedExecutionException.class, e.getCause());
+         assertEquals(1, small.getRejected());
+         release.countDown();
+         running.get(10, TimeUnit.SECONDS);
+         queued.get(10, TimeUnit.SECONDS);
+      } finally {
+         release.countDown();
+         small.shutdown();
+      }
+   }
+}
@@ -2,6 +2,7 @@ package ch.bbw.pr.employee.service;
 
 import ch.bbw.pr.employee.model.Department;
 import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
 import ch.bbw.pr.employee.repository.DepartmentRepository;
 import ch.bbw.pr.employee.repository.EmployeeRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,14 +10,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 /**
@@ -35,8 +43,18 @@ class BusinessServiceTest {
    @Mock
    private EmployeeRepository employeeRepo;
 
+   @Mock
+   private ApplicationEventPublisher eventPublisher;
+
+   @Mock
+   private LastnameFilter lastnameFilter;
+
+   @Mock
+   private PlatformTransactionManager transactionManager;
+
    private EmployeeService employeeService;
    private BusinessService businessService;
+   private DataVersionService dataVersions;
 
    private Department itDept, hrDept;
    private Employee emp1, emp2;
@@ -48,8 +66,12 @@ class BusinessServiceTest {
       emp1 = Employee.builder().id(1).firstname("Max").lastname("Mustermann").department(itDept).build();
       emp2 = Employee.builder().id(2).firstname("Anna").lastname("Schmidt").department(itDept).build();
 
-      employeeService = new EmployeeService(employeeRepo, departmentRepo);
-      businessService = new BusinessService(employeeService, departmentRepo);
+      OptimisticRetry retry = new OptimisticRetry(transactionManager, 3, Duration.ZERO);
+      DepartmentService departmentService = new DepartmentService(departmentRepo, Duration.ofMinutes(5), 100);
+      dataVersions = new DataVersionService(departmentService, transactionManager, false, Duration.ZERO);
+      employeeService = new EmployeeService(employeeRepo, departmentRepo, eventPublisher, lastnameFilter, retry, dataVersions);
+      businessService = new BusinessService(employeeService, departmentService, retry,
+              new EmployeeGroupCommit(employeeService, false, 100, Duration.ofMillis(5), 100, Duration.ofSeconds(5)), dataVersions);
    }
 
    @Test
@@ -65,6 +87,26 @@ class BusinessServiceTest {
       verify(employeeRepo).save(any(Employee.class));
    }
 
+   @Test
+   void createEmployeeWithDepartment_withGroupCommit_shouldReturnSavedEmployee() {
+      EmployeeGroupCommit groupCommit = new EmployeeGroupCommit(employeeService, true, 100, Duration.ofMillis(5), 100, Duration.ofSeconds(5));
+      BusinessService groupCommitService = new BusinessService(employeeService,
+              new DepartmentService(departmentRepo, Duration.ofMinutes(5), 100),
+              new OptimisticRetry(transactionManager, 3, Duration.ZERO), groupCommit, dataVersions);
+      when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
+      when(employeeRepo.save(any(Employee.class))).thenReturn(emp1);
+
+      try {
+         Employee result = groupCommitService.createEmployeeWithDepartment("Max", "Mustermann", "IT");
+
+         assertEquals(emp1, result);
+         assertEquals(1, groupCommit.getBatches());
+         verify(eventPublisher).publishEvent(argThat((EmployeeChangedEvent event) -> event.getPrevious() == null));
+      } finally {
+         groupCommit.shutdown();
+      }
+   }
+
    @Test
    void createEmployeeWithDepartment_whenDepartmentNotExists_shouldThrowException() {
       when(departmentRepo.findByDescription("Unknown")).thenReturn(Optional.empty());
@@ -84,6 +126,40 @@ class BusinessServiceTest {
       assertTrue(result.stream().allMatch(e -> "IT".equals(e.getDepartment().getDescription())));
    }
 
+   @Test
+   void findEmployeesByDepartmentDescription_calledTwice_shouldLookUpDepartmentOnce() {
+      when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
+      when(employeeRepo.findByDepartment(itDept)).thenReturn(Arrays.asList(emp1, emp2));
+      businessService.findEmployeesByDepartmentDescription("IT");
+      List<Employee> result = businessService.findEmployeesByDepartmentDescription("IT");
+
+      assertEquals(2, result.size());
+      verify(departmentRepo, times(1)).findByDescription("IT");
+      verify(employeeRepo, times(2)).findByDepartment(itDept);
+   }
+
+   @Test
+   void findEmployeeSummariesByDepartmentDescription_whenDepartmentExists_shouldReturnProjections() {
+      when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
+      when(employeeRepo.findSummariesByDepartmentId(1))
+              .thenReturn(Arrays.asList(EmployeeSummary.of(emp1), EmployeeSummary.of(emp2)));
+      Versioned<List<EmployeeSummary>> versioned = businessService.findEmployeeSummariesByDepartmentDescription("IT");
+      List<EmployeeSummary> result = versioned.getContent();
+
+      assertEquals(dataVersions.getDepartmentVersion(1), versioned.getVersion());
+      assertEquals(2, result.size());
+      assertTrue(result.stream().allMatch(e -> "IT".equals(e.getDepartmentDescription())));
+      verify(employeeRepo, never()).findByDepartment(any());
+   }
+
+   @Test
+   void findEmployeeSummariesByDepartmentDescription_whenDepartmentNotExists_shouldReturnEmptyList() {
+      when(departmentRepo.findByDescription("Unknown")).thenReturn(Optional.empty());
+
+      assertTrue(businessService.findEmployeeSummariesByDepartmentDescription("Unknown").getContent().isEmpty());
+      verify(employeeRepo, never()).findSummariesByDepartmentId(anyInt());
+   }
+
    @Test
    void findEmployeesByDepartmentDescription_whenDepartmentNotExists_shouldReturnEmptyList() {
       when(departmentRepo.findByDescription("Unknown")).thenReturn(Optional.empty());
@@ -102,6 +178,27 @@ class BusinessServiceTest {
 
       assertTrue(result);
       verify(employeeRepo).save(any(Employee.class));
+      verify(eventPublisher).publishEvent(argThat((EmployeeChangedEvent event) ->
+              event.getPrevious().getDepartmentId() == 1 && event.getCurrent().getDepartmentId() == 2));
+   }
+
+   @Test
+   void transferEmployeeToDepartment_whenChangedConcurrently_shouldRetryWithFreshEmployee() {
+      Employee renamed = Employee.builder().id(1).firstname("Max").lastname("Neumann").department(itDept).build();
+      when(employeeRepo.findById(1)).thenReturn(Optional.of(emp1)).thenReturn(Optional.of(renamed));
+      when(departmentRepo.findByDescription("HR")).thenReturn(Optional.of(hrDept));
+      when(employeeRepo.save(any(Employee.class)))
+              .thenThrow(new ObjectOptimisticLockingFailureException(Employee.class, 1))
+              .thenReturn(renamed);
+
+      boolean result = businessService.transferEmployeeToDepartment(1, "HR");
+
+      assertTrue(result);
+      assertEquals("Neumann", renamed.getLastname());
+      assertEquals(hrDept, renamed.getDepartment());
+      verify(employeeRepo, times(2)).findById(1);
+      verify(transactionManager).rollback(any());
+      verify(transactionManager).commit(any());
    }
 
    @Test
@@ -136,4 +233,51 @@ class BusinessServiceTest {
       assertFalse(result);
       verify(employeeRepo, never()).save(any());
    }
+
+   @Test
+   void transferEmployeesToDepartment_whenDepartmentExists_shouldMoveInOneStatement() {
+      when(departmentRepo.findByDescription("HR")).thenReturn(Optional.of(hrDept));
+      when(employeeRepo.moveAllToDepartment(List.of(1, 2), hrDept)).thenReturn(2);
+
+      int result = businessService.transferEmployeesToDepartment(List.of(1, 2), "HR");
+
+      assertEquals(2, result);
+      verify(employeeRepo, never()).findById(any());
+      verify(employeeRepo, never()).save(any());
+   }
+
+   @Test
+   void transferEmployeesToDepartment_whenDepartmentNotExists_shouldThrowException() {
+      when(departmentRepo.findByDescription("Unknown")).thenReturn(Optional.empty());
+      assertThrows(NoSuchElementException.class, () ->
+              businessService.transferEmployeesToDepartment(List.of(1, 2), "Unknown")
+      );
+      verify(employeeRepo, never()).moveAllToDepartment(any(), any());
+   }
+
+   @Test
+   void importEmployees_shouldResolveDepartmentsAndImport() {
+      when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
+      ImportReport report = businessService.importEmployees(
+              Stream.of("Max,Mustermann,IT", "", "Anna,Schmidt"), 50);
+
+      assertEquals(2, report.getRows());
+      verify(employeeRepo).saveAll(anyList());
+   }
+
+   @Test
+   void importEmployees_whenDepartmentNotExists_shouldThrowException() {
+      when(departmentRepo.findByDescription("Unknown")).thenReturn(Optional.empty());
+      assertThrows(NoSuchElementException.class, () ->
+              businessService.importEmployees(Stream.of("Max,Mustermann,Unknown"), 50)
+      );
+   }
+
+   @Test
+   void importEmployees_whenLineInvalid_shouldThrowException() {
+      assertThrows(IllegalArgumentException.class, () ->
+              businessService.importEmployees(Stream.of("Mustermann"), 50)
+      );
+      verify(employeeRepo, never()).saveAll(anyList());
+   }
 }
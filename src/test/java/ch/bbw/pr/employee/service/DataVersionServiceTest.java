@@ -0,0 +1,102 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.Department;
+import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.repository.DepartmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * DataVersionServiceTest
+ * Prüft, welche Versionen (ETags) sich bei Änderungen an Employees ändern
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@ExtendWith(MockitoExtension.class)
+class DataVersionServiceTest {
+
+   @Mock
+   private DepartmentRepository departmentRepo;
+
+   @Mock
+   private PlatformTransactionManager transactionManager;
+
+   private DataVersionService dataVersionService;
+   private Employee itEmployee;
+
+   @BeforeEach
+   void setUp() {
+      dataVersionService = new DataVersionService(new DepartmentService(departmentRepo, Duration.ofMinutes(5), 100),
+              transactionManager, false, Duration.ZERO);
+      Department itDept = Department.builder().id(1).description("IT").build();
+      Department hrDept = Department.builder().id(2).description("HR").build();
+      lenient().when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
+      lenient().when(departmentRepo.findByDescription("HR")).thenReturn(Optional.of(hrDept));
+      itEmployee = Employee.builder().id(1).firstname("Max").lastname("Mustermann").department(itDept).build();
+   }
+
+   @Test
+   void onEmployeeChanged_shouldChangeGlobalAndDepartmentVersion() {
+      DataVersion all = dataVersionService.getVersion();
+      DataVersion it = dataVersionService.getDepartmentVersion("IT");
+      DataVersion hr = dataVersionService.getDepartmentVersion("HR");
+
+      dataVersionService.onEmployeeChanged(EmployeeChangedEvent.created(itEmployee));
+
+      assertNotEquals(all.getEtag(), dataVersionService.getVersion().getEtag());
+      assertNotEquals(it.getEtag(), dataVersionService.getDepartmentVersion("IT").getEtag());
+      assertEquals(hr.getEtag(), dataVersionService.getDepartmentVersion("HR").getEtag());
+   }
+
+   @Test
+   void onEmployeeChanged_whenBulk_shouldChangeAllDepartmentVersions() {
+      DataVersion it = dataVersionService.getDepartmentVersion("IT");
+      DataVersion hr = dataVersionService.getDepartmentVersion("HR");
+
+      dataVersionService.onEmployeeChanged(EmployeeChangedEvent.bulk());
+
+      assertNotEquals(it.getEtag(), dataVersionService.getDepartmentVersion("IT").getEtag());
+      assertNotEquals(hr.getEtag(), dataVersionService.getDepartmentVersion("HR").getEtag());
+   }
+
+   @Test
+   void read_whenVersionSettled_shouldReadWithoutTransaction() {
+      DataVersion version = dataVersionService.getVersion();
+
+      Versioned<String> result = dataVersionService.read(version, () -> "page");
+
+      assertEquals("page", result.getContent());
+      assertEquals(version, result.getVersion());
+      verifyNoInteractions(transactionManager);
+   }
+
+   @Test
+   void read_withReplicasAfterRecentWrite_shouldReadOnThePrimary() {
+      DataVersionService withReplicas = new DataVersionService(new DepartmentService(departmentRepo, Duration.ofMinutes(5), 100),
+              transactionManager, true, Duration.ofMinutes(1));
+      withReplicas.onEmployeeChanged(EmployeeChangedEvent.created(itEmployee));
+      DataVersion version = withReplicas.getVersion();
+
+      assertFalse(withReplicas.isSettled(version));
+      assertEquals("page", withReplicas.read(version, () -> "page").getContent());
+      // read-write, damit die Verbindung von der Primary-Datenbank kommt
+      verify(transactionManager).getTransaction(argThat((TransactionDefinition definition) -> !definition.isReadOnly()));
+   }
+
+   @Test
+   void getVersion_withoutChanges_shouldStayTheSame() {
+      assertEquals(dataVersionService.getVersion(), dataVersionService.getVersion());
+      assertEquals(dataVersionService.getDepartmentVersion("IT"), dataVersionService.getDepartmentVersion("IT"));
+   }
+}
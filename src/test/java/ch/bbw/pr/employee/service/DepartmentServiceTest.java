@@ -0,0 +1,107 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.Department;
+import ch.bbw.pr.employee.repository.DepartmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * DepartmentServiceTest
+ * Unit tests für den Department-Cache mit gemocktem Repository
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@ExtendWith(MockitoExtension.class)
+class DepartmentServiceTest {
+
+   @Mock
+   private DepartmentRepository departmentRepo;
+
+   private DepartmentService departmentService;
+
+   private Department itDept, hrDept;
+
+   @BeforeEach
+   void setUp() {
+      itDept = Department.builder().id(1).description("IT").build();
+      hrDept = Department.builder().id(2).description("HR").build();
+      departmentService = new DepartmentService(departmentRepo, Duration.ofMinutes(5), 1);
+   }
+
+   @Test
+   void findByDescription_calledTwice_shouldHitCache() {
+      when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
+
+      assertEquals(itDept, departmentService.findByDescription("IT").get());
+      assertEquals(itDept, departmentService.findByDescription("IT").get());
+
+      verify(departmentRepo, times(1)).findByDescription("IT");
+      assertEquals(1, departmentService.getCacheHits());
+      assertEquals(1, departmentService.getCacheMisses());
+   }
+
+   @Test
+   void findByDescription_whenNotExists_shouldNotCache() {
+      when(departmentRepo.findByDescription("Unknown")).thenReturn(Optional.empty());
+
+      assertFalse(departmentService.findByDescription("Unknown").isPresent());
+      assertFalse(departmentService.findByDescription("Unknown").isPresent());
+
+      verify(departmentRepo, times(2)).findByDescription("Unknown");
+      assertEquals(0, departmentService.getCacheSize());
+   }
+
+   @Test
+   void findByDescription_whenTtlIsZero_shouldAlwaysQuery() {
+      departmentService = new DepartmentService(departmentRepo, Duration.ZERO, 10);
+      when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
+
+      departmentService.findByDescription("IT");
+      departmentService.findByDescription("IT");
+
+      verify(departmentRepo, times(2)).findByDescription("IT");
+   }
+
+   @Test
+   void findByDescription_whenCacheIsFull_shouldEvict() {
+      when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
+      when(departmentRepo.findByDescription("HR")).thenReturn(Optional.of(hrDept));
+
+      departmentService.findByDescription("IT");
+      departmentService.findByDescription("HR");
+
+      assertEquals(1, departmentService.getCacheSize());
+   }
+
+   @Test
+   void saveDepartment_shouldInvalidateCache() {
+      when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
+      when(departmentRepo.save(itDept)).thenReturn(itDept);
+
+      departmentService.findByDescription("IT");
+      departmentService.saveDepartment(itDept);
+      departmentService.findByDescription("IT");
+
+      verify(departmentRepo, times(2)).findByDescription("IT");
+   }
+
+   @Test
+   void deleteDepartment_shouldInvalidateCache() {
+      when(departmentRepo.findByDescription("IT")).thenReturn(Optional.of(itDept));
+
+      departmentService.findByDescription("IT");
+      departmentService.deleteDepartment(itDept);
+
+      assertEquals(0, departmentService.getCacheSize());
+      verify(departmentRepo, times(1)).delete(itDept);
+   }
+}
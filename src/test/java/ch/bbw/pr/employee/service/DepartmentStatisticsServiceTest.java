@@ -0,0 +1,156 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.Department;
+import ch.bbw.pr.employee.model.DepartmentHeadcount;
+import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import ch.bbw.pr.employee.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * DepartmentStatisticsServiceTest
+ * Prüft, dass die Headcounts einmal geladen und danach über die Events nachgeführt werden
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@ExtendWith(MockitoExtension.class)
+class DepartmentStatisticsServiceTest {
+
+   @Mock
+   private EmployeeRepository employeeRepo;
+
+   private DepartmentStatisticsService statisticsService;
+   private Department itDept, hrDept;
+   private Employee emp1;
+
+   @BeforeEach
+   void setUp() {
+      statisticsService = new DepartmentStatisticsService(employeeRepo, Duration.ofMinutes(1));
+      itDept = Department.builder().id(1).description("IT").build();
+      hrDept = Department.builder().id(2).description("HR").build();
+      emp1 = Employee.builder().id(1).firstname("Max").lastname("Mustermann").department(itDept).build();
+   }
+
+   private void stubHeadcounts() {
+      when(employeeRepo.countPerDepartment()).thenReturn(List.of(
+              new DepartmentHeadcount(1, "IT", 2),
+              new DepartmentHeadcount(2, "HR", 0)));
+      when(employeeRepo.countByDepartmentIsNull()).thenReturn(1L);
+   }
+
+   @Test
+   void getStatistics_shouldLoadOnceAndServeFromCounters() {
+      stubHeadcounts();
+
+      DepartmentStatistics first = statisticsService.getStatistics();
+      DepartmentStatistics second = statisticsService.getStatistics();
+
+      assertEquals(first, second);
+      assertEquals(2, first.getDepartments().get(0).getHeadcount());
+      assertEquals(1, first.getUnassigned());
+      assertEquals(3, first.getTotal());
+      verify(employeeRepo, times(1)).countPerDepartment();
+   }
+
+   @Test
+   void onEmployeeChanged_shouldUpdateCountersWithoutQuery() {
+      stubHeadcounts();
+      statisticsService.getStatistics();
+      EmployeeSummary previous = EmployeeSummary.of(emp1);
+      emp1.setDepartment(hrDept);
+
+      statisticsService.onEmployeeChanged(EmployeeChangedEvent.changed(previous, emp1));
+      statisticsService.onEmployeeChanged(EmployeeChangedEvent.created(
+              Employee.builder().id(5).firstname("Eva").lastname("Meier").build()));
+      DepartmentStatistics statistics = statisticsService.getStatistics();
+
+      assertEquals(1, statistics.getDepartments().get(0).getHeadcount());
+      assertEquals(1, statistics.getDepartments().get(1).getHeadcount());
+      assertEquals(2, statistics.getUnassigned());
+      verify(employeeRepo, times(1)).countPerDepartment();
+   }
+
+   @Test
+   void onEmployeeChanged_whenDeleted_shouldDecrementDepartment() {
+      stubHeadcounts();
+      statisticsService.getStatistics();
+
+      statisticsService.onEmployeeChanged(EmployeeChangedEvent.deleted(emp1));
+
+      assertEquals(1, statisticsService.getStatistics().getDepartments().get(0).getHeadcount());
+   }
+
+   @Test
+   void onEmployeeChanged_whenBulk_shouldReloadAtNextRead() {
+      stubHeadcounts();
+      statisticsService.getStatistics();
+
+      statisticsService.onEmployeeChanged(EmployeeChangedEvent.bulk());
+      statisticsService.getStatistics();
+
+      verify(employeeRepo, times(2)).countPerDepartment();
+   }
+
+   @Test
+   void onEmployeeChanged_whenDepartmentUnknown_shouldReloadAtNextRead() {
+      stubHeadcounts();
+      statisticsService.getStatistics();
+      Department newDept = Department.builder().id(3).description("Sales").build();
+
+      statisticsService.onEmployeeChanged(EmployeeChangedEvent.created(
+              Employee.builder().id(6).firstname("Tom").lastname("Keller").department(newDept).build()));
+      statisticsService.getStatistics();
+
+      verify(employeeRepo, times(2)).countPerDepartment();
+   }
+
+   // schliesst die Transaktion ab, in der die Events veröffentlicht wurden
+   private static void complete(int status) {
+      try {
+         TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(status));
+      } finally {
+         TransactionSynchronizationManager.clearSynchronization();
+      }
+   }
+
+   @Test
+   void getStatistics_whileAWriteCommits_shouldNotCountItTwice() {
+      // die Datenbank zählt den neuen Employee schon: IT 2
+      stubHeadcounts();
+      TransactionSynchronizationManager.initSynchronization();
+      statisticsService.onEmployeeChanged(EmployeeChangedEvent.created(
+              Employee.builder().id(7).firstname("Eva").lastname("Meier").department(itDept).build()));
+
+      // gelesen nach dem Commit, aber bevor der Listener nach dem Commit gelaufen ist
+      statisticsService.getStatistics();
+      complete(TransactionSynchronization.STATUS_COMMITTED);
+
+      assertEquals(2, statisticsService.getStatistics().getDepartments().get(0).getHeadcount());
+      verify(employeeRepo, times(2)).countPerDepartment();
+   }
+
+   @Test
+   void onEmployeeChanged_whenRolledBack_shouldNotApply() {
+      stubHeadcounts();
+      statisticsService.getStatistics();
+      TransactionSynchronizationManager.initSynchronization();
+
+      statisticsService.onEmployeeChanged(EmployeeChangedEvent.deleted(emp1));
+      complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+      assertEquals(2, statisticsService.getStatistics().getDepartments().get(0).getHeadcount());
+      verify(employeeRepo, times(1)).countPerDepartment();
+   }
+}
@@ -0,0 +1,159 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.DepartmentHeadcount;
+import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import ch.bbw.pr.employee.service.EmployeeColumnStore.Filter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static ch.bbw.pr.employee.service.SnapshotFixture.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * EmployeeColumnStoreTest
+ * Prüft Zählen, Gruppieren und Filtern auf der spaltenweisen Kopie sowie das Nachführen bei Änderungen
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@ExtendWith(MockitoExtension.class)
+class EmployeeColumnStoreTest {
+
+   @Mock
+   private EmployeeService employeeService;
+
+   private EmployeeColumnStore columnStore;
+
+   @BeforeEach
+   void setUp() {
+      columnStore = new EmployeeColumnStore(employeeService, true);
+   }
+
+   @AfterEach
+   void tearDown() {
+      columnStore.shutdown();
+   }
+
+   private void load(Employee... employees) {
+      doAnswer(reading(employees)).when(employeeService).streamEmployeeSummaries(any());
+      columnStore.reload();
+   }
+
+   private void loadExample() {
+      load(employee(1, "Max", "Mustermann", IT), employee(2, "Eva", "Muster", IT),
+            employee(3, "Tom", "Keller", HR), employee(4, "Émile", "Müller", null),
+            employee(5, "Max", "Keller", IT));
+   }
+
+   @Test
+   void count_withFilters_shouldCountMatchingEmployees() {
+      loadExample();
+
+      assertTrue(columnStore.isReady());
+      assertEquals(5, columnStore.count(Filter.all()));
+      assertEquals(3, columnStore.count(Filter.all().departmentId(1)));
+      assertEquals(1, columnStore.count(Filter.all().departmentId(EmployeeColumnStore.NO_DEPARTMENT)));
+      assertEquals(0, columnStore.count(Filter.all().departmentId(99)));
+      assertEquals(3, columnStore.count(Filter.all().lastname(Filter.startsWith("mu"))));
+      assertEquals(1, columnStore.count(Filter.all().lastname(Filter.startsWith("mu")).firstname(Filter.startsWith("emile"))));
+      assertEquals(1, columnStore.count(Filter.all().departmentId(1).lastname(Filter.startsWith("Keller"))));
+   }
+
+   @Test
+   void countByDepartment_shouldGroupByDepartmentWithUnassigned() {
+      loadExample();
+
+      DepartmentStatistics statistics = columnStore.countByDepartment(Filter.all());
+
+      assertEquals(List.of(new DepartmentHeadcount(1, "IT", 3), new DepartmentHeadcount(2, "HR", 1)),
+            statistics.getDepartments());
+      assertEquals(1, statistics.getUnassigned());
+      assertEquals(List.of(new DepartmentHeadcount(2, "HR", 1)),
+            columnStore.countByDepartment(Filter.all().lastname(Filter.startsWith("k")).firstname(Filter.startsWith("tom"))).getDepartments());
+   }
+
+   @Test
+   void countByLastname_shouldReturnMostFrequentFirst() {
+      loadExample();
+
+      assertEquals(Map.of("Keller", 2L, "Muster", 1L), columnStore.countByLastname(Filter.all(), 2));
+      assertEquals(List.of("Keller", "Muster"), List.copyOf(columnStore.countByLastname(Filter.all(), 2).keySet()));
+      assertEquals(Map.of("Keller", 1L), columnStore.countByLastname(Filter.all().departmentId(2), 10));
+   }
+
+   @Test
+   void onEmployeeChanged_shouldUpdateTheColumns() {
+      loadExample();
+      Employee moved = employee(1, "Max", "Mustermann", HR);
+      Employee removed = employee(3, "Tom", "Keller", HR);
+
+      columnStore.onEmployeeChanged(EmployeeChangedEvent.changed(EmployeeSummary.of(employee(1, "Max", "Mustermann", IT)), moved));
+      columnStore.onEmployeeChanged(EmployeeChangedEvent.deleted(removed));
+      columnStore.onEmployeeChanged(EmployeeChangedEvent.created(employee(6, "Lea", "Neumann", null)));
+
+      assertEquals(5, columnStore.size());
+      assertEquals(2, columnStore.count(Filter.all().departmentId(1)));
+      assertEquals(List.of(1), columnStore.findIds(Filter.all().departmentId(2), 10));
+      assertEquals(2, columnStore.countByDepartment(Filter.all()).getUnassigned());
+      assertEquals(List.of(6), columnStore.findIds(Filter.all().lastname(Filter.startsWith("neu")), 10));
+      verify(employeeService, times(1)).streamEmployeeSummaries(any());
+   }
+
+   @Test
+   void onEmployeeChanged_withIdsOutOfOrder_shouldFindTheRowOfEveryId() {
+      load(employee(10, "Max", "Mustermann", IT), employee(20, "Eva", "Muster", IT));
+
+      columnStore.onEmployeeChanged(EmployeeChangedEvent.created(employee(5, "Lea", "Neumann", HR)));
+      columnStore.onEmployeeChanged(EmployeeChangedEvent.created(employee(15, "Tom", "Keller", HR)));
+      columnStore.onEmployeeChanged(EmployeeChangedEvent.deleted(employee(10, "Max", "Mustermann", IT)));
+      columnStore.onEmployeeChanged(EmployeeChangedEvent.changed(null, employee(15, "Tom", "Keller", IT)));
+      // wieder angelegt mit der Id einer gelöschten Zeile
+      columnStore.onEmployeeChanged(EmployeeChangedEvent.created(employee(10, "Max", "Meier", HR)));
+
+      assertEquals(4, columnStore.size());
+      assertEquals(List.of(10, 5), columnStore.findIds(Filter.all().departmentId(2), 10));
+      assertEquals(List.of(20, 15), columnStore.findIds(Filter.all().departmentId(1), 10));
+      assertEquals(0, columnStore.count(Filter.all().lastname("Mustermann"::equals)));
+   }
+
+   @Test
+   void scans_overManyRows_shouldMatchSequentialCounts() {
+      // mehr Zeilen als ein Fork-Join-Task liest und mehr Nachnamen als pro Task gezählt werden
+      int rows = 100_000;
+      Employee[] employees = new Employee[rows];
+      for (int id = 1; id <= rows; id++) {
+         employees[id - 1] = employee(id, "F" + id % 7, "L" + id % 5000, id % 10 == 0 ? null : id % 3 == 0 ? HR : IT);
+      }
+      load(employees);
+
+      long hr = 0, unassigned = 0, l42 = 0;
+      for (int id = 1; id <= rows; id++) {
+         if (id % 10 == 0) {
+            unassigned++;
+         } else if (id % 3 == 0) {
+            hr++;
+         }
+         if (id % 5000 == 42) {
+            l42++;
+         }
+      }
+      assertEquals(rows, columnStore.count(Filter.all()));
+      assertEquals(hr, columnStore.count(Filter.all().departmentId(2)));
+      assertEquals(unassigned, columnStore.countByDepartment(Filter.all()).getUnassigned());
+      assertEquals(l42, columnStore.countByLastname(Filter.all(), 5000).get("L42"));
+      assertEquals(20, columnStore.countByLastname(Filter.all(), 20).size());
+      List<Integer> ids = columnStore.findIds(Filter.all().lastname("L42"::equals), 1000);
+      assertEquals(l42, ids.size());
+      assertEquals(42, ids.get(0));
+      assertEquals(ids.stream().sorted().toList(), ids);
+   }
+}
@@ -0,0 +1,194 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.Employee;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * EmployeeGroupCommitTest
+ * Prüft, dass gleichzeitig erstellte Employees gemeinsam gespeichert werden und jeder Aufrufer
+ * seine eigene Id oder seinen eigenen Fehler erhält
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@ExtendWith(MockitoExtension.class)
+class EmployeeGroupCommitTest {
+
+   @Mock
+   private EmployeeService employeeService;
+
+   private EmployeeGroupCommit groupCommit;
+   private final AtomicInteger ids = new AtomicInteger(100);
+
+   @AfterEach
+   void tearDown() {
+      if (groupCommit != null) {
+         groupCommit.shutdown();
+      }
+   }
+
+   private EmployeeGroupCommit start(int maxBatchSize, Duration maxDelay) {
+      groupCommit = new EmployeeGroupCommit(employeeService, true, maxBatchSize, maxDelay, 100, Duration.ofSeconds(5));
+      return groupCommit;
+   }
+
+   private static Employee employee(String lastname) {
+      return Employee.builder().firstname("Max").lastname(lastname).build();
+   }
+
+   @SuppressWarnings("unchecked")
+   private void saveAssigningIds() {
+      when(employeeService.createEmployees(anyList())).thenAnswer(invocation -> {
+         List<Employee> employees = invocation.getArgument(0);
+         if (employees.stream().anyMatch(employee -> employee.getLastname().equals("Invalid"))) {
+            throw new IllegalArgumentException("invalid lastname");
+         }
+         employees.forEach(employee -> employee.setId(ids.incrementAndGet()));
+         return employees;
+      });
+   }
+
+   @Test
+   void submit_whenBatchIsFull_shouldSaveInOneTransaction() throws Exception {
+      saveAssigningIds();
+      start(3, Duration.ofSeconds(10));
+
+      CompletableFuture<Employee> first = groupCommit.submit(employee("Muster"));
+      CompletableFuture<Employee> second = groupCommit.submit(employee("Mustermann"));
+      CompletableFuture<Employee> third = groupCommit.submit(employee("Schmidt"));
+
+      assertEquals("Muster", first.get(5, TimeUnit.SECONDS).getLastname());
+      assertEquals("Schmidt", third.get(5, TimeUnit.SECONDS).getLastname());
+      assertEquals(3, List.of(first.get().getId(), second.get().getId(), third.get().getId()).stream().distinct().count());
+      verify(employeeService, times(1)).createEmployees(anyList());
+      assertEquals(1, groupCommit.getBatches());
+      assertEquals(3, groupCommit.getRows());
+   }
+
+   @Test
+   void submit_whenBatchIsNotFull_shouldSaveAfterMaxDelay() throws Exception {
+      saveAssigningIds();
+      start(100, Duration.ofMillis(20));
+
+      Employee saved = groupCommit.submit(employee("Muster")).get(5, TimeUnit.SECONDS);
+
+      assertTrue(saved.getId() > 100);
+      assertEquals(1, groupCommit.getBatches());
+      assertTrue(groupCommit.getQueueWaitMillis() > 0);
+   }
+
+   @Test
+   void submit_whenBatchFails_shouldFailOnlyTheInvalidEmployee() throws Exception {
+      saveAssigningIds();
+      start(2, Duration.ofSeconds(10));
+
+      CompletableFuture<Employee> valid = groupCommit.submit(employee("Muster"));
+      CompletableFuture<Employee> invalid = groupCommit.submit(employee("Invalid"));
+
+      assertTrue(valid.get(5, TimeUnit.SECONDS).getId() > 100);
+      ExecutionException exception = assertThrows(ExecutionException.class, () -> invalid.get(5, TimeUnit.SECONDS));
+      assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+      // the batch and then each employee alone
+      verify(employeeService, times(3)).createEmployees(anyList());
+   }
+
+   @Test
+   void submit_whenDisabled_shouldBeRejected() {
+      EmployeeGroupCommit disabled = new EmployeeGroupCommit(employeeService, false, 100, Duration.ofMillis(5), 100, Duration.ofSeconds(5));
+
+      assertFalse(disabled.isEnabled());
+      assertThrows(RejectedExecutionException.class, () -> disabled.submit(employee("Muster")));
+      disabled.shutdown();
+   }
+
+   @Test
+   void shutdown_shouldCommitQueuedEmployees() throws Exception {
+      saveAssigningIds();
+      start(100, Duration.ofSeconds(10));
+
+      CompletableFuture<Employee> queued = groupCommit.submit(employee("Muster"));
+      groupCommit.shutdown();
+
+      assertTrue(queued.get(5, TimeUnit.SECONDS).getId() > 100);
+      assertThrows(RejectedExecutionException.class, () -> groupCommit.submit(employee("Schmidt")));
+   }
+
+   @Test
+   void shutdown_whileSubmitting_shouldCompleteEveryAcceptedEmployee() throws Exception {
+      saveAssigningIds();
+      start(10, Duration.ofMillis(1));
+      Queue<CompletableFuture<Employee>> accepted = new ConcurrentLinkedQueue<>();
+      AtomicInteger rejected = new AtomicInteger();
+      ExecutorService submitters = Executors.newFixedThreadPool(8);
+      CountDownLatch started = new CountDownLatch(8);
+      try {
+         for (int thread = 0; thread < 8; thread++) {
+            submitters.execute(() -> {
+               started.countDown();
+               while (true) {
+                  try {
+                     accepted.add(groupCommit.submit(employee("Muster")));
+                  } catch (RejectedExecutionException e) {
+                     rejected.incrementAndGet();
+                     return;
+                  }
+               }
+            });
+         }
+         started.await();
+         groupCommit.shutdown();
+      } finally {
+         submitters.shutdown();
+         assertTrue(submitters.awaitTermination(5, TimeUnit.SECONDS));
+      }
+
+      // kein angenommener Employee bleibt nach dem Stoppen in der Queue liegen
+      for (CompletableFuture<Employee> future : accepted) {
+         assertTrue(future.get(5, TimeUnit.SECONDS).getId() > 100);
+      }
+      assertEquals(8, rejected.get());
+      assertEquals(0, groupCommit.getQueueSize());
+   }
+
+   @Test
+   void submit_whenQueueStaysFull_shouldBeRejectedAfterTimeout() throws Exception {
+      CountDownLatch release = new CountDownLatch(1);
+      when(employeeService.createEmployees(anyList())).thenAnswer(invocation -> {
+         release.await();
+         return invocation.getArgument(0);
+      });
+      groupCommit = new EmployeeGroupCommit(employeeService, true, 1, Duration.ofMillis(1), 1, Duration.ofMillis(50));
+
+      CompletableFuture<Employee> flushing = groupCommit.submit(employee("Muster"));
+      // wartet, bis der Flusher den ersten Employee aus der Queue genommen hat
+      while (groupCommit.getBatches() == 0) {
+         Thread.onSpinWait();
+      }
+      CompletableFuture<Employee> queued = groupCommit.submit(employee("Mustermann"));
+
+      assertThrows(RejectedExecutionException.class, () -> groupCommit.submit(employee("Schmidt")));
+      release.countDown();
+      assertEquals("Muster", flushing.get(5, TimeUnit.SECONDS).getLastname());
+      assertEquals("Mustermann", queued.get(5, TimeUnit.SECONDS).getLastname());
+   }
+}
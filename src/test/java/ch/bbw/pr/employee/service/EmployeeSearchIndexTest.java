@@ -0,0 +1,175 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static ch.bbw.pr.employee.service.SnapshotFixture.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * EmployeeSearchIndexTest
+ * Prüft Präfix-, Tippfehler- und Akzent-tolerante Suche sowie das Nachführen des Index
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@ExtendWith(MockitoExtension.class)
+class EmployeeSearchIndexTest {
+
+   @Mock
+   private EmployeeService employeeService;
+
+   private EmployeeSearchIndex searchIndex;
+
+   @BeforeEach
+   void setUp() {
+      searchIndex = new EmployeeSearchIndex(employeeService);
+   }
+
+   @AfterEach
+   void tearDown() {
+      searchIndex.shutdown();
+   }
+
+   private static Employee employee(int id, String firstname, String lastname) {
+      return SnapshotFixture.employee(id, firstname, lastname, IT);
+   }
+
+   private void build(Employee... employees) {
+      doAnswer(reading(employees)).when(employeeService).scanEmployeeSummaries(anyInt(), any());
+      searchIndex.reload();
+   }
+
+   private List<String> lastnames(String query) {
+      return searchIndex.search(query, 10).stream().map(EmployeeSummary::getLastname).toList();
+   }
+
+   @Test
+   void search_shouldRankExactBeforePrefixMatches() {
+      build(employee(1, "Max", "Mustermann"), employee(2, "Eva", "Muster"), employee(3, "Tom", "Keller"));
+
+      assertTrue(searchIndex.isReady());
+      assertEquals(List.of("Muster", "Mustermann"), lastnames("muster"));
+   }
+
+   @Test
+   void search_withTypo_shouldFindSimilarNames() {
+      build(employee(1, "Max", "Mustermann"), employee(2, "Tom", "Keller"));
+
+      assertEquals(List.of("Mustermann"), lastnames("Mustremann"));
+      assertEquals(List.of("Keller"), lastnames("Kelelr"));
+   }
+
+   @Test
+   void search_withTypoInTheBeginning_shouldFindLongerNames() {
+      build(employee(1, "Max", "Mustermann"), employee(2, "Tom", "Keller"));
+
+      assertEquals(List.of("Mustermann"), lastnames("mustarm"));
+      assertEquals(List.of("Keller"), lastnames("kellr"));
+      // zu kurz für Tippfehler am Anfang eines längeren Namens
+      assertEquals(List.of(), lastnames("mux"));
+   }
+
+   @Test
+   void search_withSeveralWords_shouldMatchEveryWord() {
+      build(employee(1, "Max", "Mustermann"), employee(2, "Eva", "Mustermann"), employee(3, "Max", "Keller"),
+            employee(4, "Zoë", "Dupont-Lévy"));
+
+      assertEquals(List.of(1), searchIndex.search("max muster", 10).stream().map(EmployeeSummary::getId).toList());
+      assertEquals(List.of(2), searchIndex.search("Mustermann, Eva", 10).stream().map(EmployeeSummary::getId).toList());
+      assertEquals(List.of(3), searchIndex.search("kelelr max", 10).stream().map(EmployeeSummary::getId).toList());
+      assertEquals(List.of("Dupont-Lévy"), lastnames("dupont-levy"));
+      assertEquals(List.of(), lastnames("eva keller"));
+   }
+
+   @Test
+   void search_shouldIgnoreCaseAndAccents() {
+      build(employee(1, "Jürg", "Müller"), employee(2, "Zoë", "Dupont-Lévy"));
+
+      assertEquals(List.of("Müller"), lastnames("MULLER"));
+      assertEquals(List.of("Dupont-Lévy"), lastnames("levy"));
+      assertEquals(List.of("Müller"), lastnames("jurg"));
+   }
+
+   @Test
+   void search_shouldRankLastnamesBeforeFirstnames() {
+      build(employee(1, "Keller", "Meier"), employee(2, "Tom", "Keller"));
+
+      assertEquals(List.of("Keller", "Meier"), lastnames("keller"));
+   }
+
+   @Test
+   void onEmployeeChanged_shouldUpdateIndexWithoutScan() {
+      build();
+      Employee employee = employee(1, "Max", "Mustermann");
+
+      searchIndex.onEmployeeChanged(EmployeeChangedEvent.created(employee));
+      assertEquals(List.of("Mustermann"), lastnames("muster"));
+
+      EmployeeSummary previous = EmployeeSummary.of(employee);
+      employee.setLastname("Neumann");
+      searchIndex.onEmployeeChanged(EmployeeChangedEvent.changed(previous, employee));
+      assertEquals(List.of(), lastnames("muster"));
+      assertEquals(List.of("Neumann"), lastnames("neu"));
+
+      searchIndex.onEmployeeChanged(EmployeeChangedEvent.deleted(employee));
+      assertEquals(List.of(), lastnames("neu"));
+      assertEquals(0, searchIndex.size());
+      verify(employeeService, times(1)).scanEmployeeSummaries(anyInt(), any());
+   }
+
+   @Test
+   void search_shouldLimitResults() {
+      build(employee(1, "A", "Meier"), employee(2, "B", "Meier"), employee(3, "C", "Meier"));
+
+      assertEquals(2, searchIndex.search("meier", 2).size());
+      assertEquals(List.of(), searchIndex.search("  ", 10));
+   }
+
+   @Test
+   void search_withMoreCandidatesThanScored_shouldFindTheTokensOfRareTrigrams() {
+      // mehr Namen mit den häufigen Trigrammen von "lstname" als bewertet werden, "me$" hat nur "lastname",
+      // die übrigen Treffer mit zwei Fehlern kommen aus den bewerteten Namen
+      int rows = 2 * EmployeeSearchIndex.MAX_FUZZY_CANDIDATES;
+      Employee[] employees = new Employee[rows + 1];
+      for (int id = 1; id <= rows; id++) {
+         employees[id - 1] = employee(id, "Max", "Lastname" + id);
+      }
+      employees[rows] = employee(rows + 1, "Tom", "Lastname");
+      build(employees);
+
+      List<String> lastnames = lastnames("lstname");
+      assertEquals("Lastname", lastnames.get(0));
+      assertEquals(10, lastnames.size());
+   }
+
+   @Test
+   void hasTrigram_shouldAgreeWithTrigrams() {
+      for (String token : List.of("a", "ab", "abc", "keller")) {
+         for (String trigram : EmployeeSearchIndex.trigrams(token)) {
+            assertTrue(EmployeeSearchIndex.hasTrigram(token, trigram), token + " " + trigram);
+         }
+      }
+      assertFalse(EmployeeSearchIndex.hasTrigram("keller", "$el"));
+      assertFalse(EmployeeSearchIndex.hasTrigram("keller", "le$"));
+      assertFalse(EmployeeSearchIndex.hasTrigram("keller", "$a$"));
+      assertFalse(EmployeeSearchIndex.hasTrigram("ab", "$a$"));
+   }
+
+   @Test
+   void distance_shouldStopAboveMax() {
+      assertEquals(1, EmployeeSearchIndex.distance("keller", "kelle", 2));
+      assertEquals(2, EmployeeSearchIndex.distance("mustremann", "mustermann", 2));
+      assertEquals(3, EmployeeSearchIndex.distance("meier", "keller", 2));
+   }
+}
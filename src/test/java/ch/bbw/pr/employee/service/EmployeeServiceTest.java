@@ -2,21 +2,40 @@ package ch.bbw.pr.employee.service;
 
 import ch.bbw.pr.employee.model.Department;
 import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
 import ch.bbw.pr.employee.repository.DepartmentRepository;
 import ch.bbw.pr.employee.repository.EmployeeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.data.domain.Limit;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 /**
@@ -36,8 +55,17 @@ class EmployeeServiceTest {
    @Mock 
    private DepartmentRepository departmentRepo;
 
-   @InjectMocks 
+   @Mock
+   private ApplicationEventPublisher eventPublisher;
+
+   @Mock
+   private LastnameFilter lastnameFilter;
+
+   @Mock
+   private PlatformTransactionManager transactionManager;
+
    private EmployeeService employeeService;
+   private DataVersionService dataVersions;
 
    private Employee testEmployee1;
    private Employee testEmployee2;
@@ -45,6 +73,10 @@ class EmployeeServiceTest {
 
    @BeforeEach
    void setUp() {
+      dataVersions = new DataVersionService(new DepartmentService(departmentRepo, Duration.ofMinutes(5), 100),
+              transactionManager, false, Duration.ZERO);
+      employeeService = new EmployeeService(employeeRepo, departmentRepo, eventPublisher, lastnameFilter,
+              new OptimisticRetry(transactionManager, 3, Duration.ZERO), dataVersions);
       testDepartment = Department.builder()
               .id(1)
               .description("IT")
@@ -83,16 +115,98 @@ class EmployeeServiceTest {
    }
 
    @Test
-   void addEmployee_shouldSaveAndReturnAllEmployees() {
-      List<Employee> employees = Arrays.asList(testEmployee1);
+   void findEmployeesAfter_whenMoreRowsExist_shouldReturnPageWithCursor() {
+      when(employeeRepo.findByIdGreaterThanOrderByIdAsc(0, Limit.of(2)))
+              .thenReturn(Arrays.asList(testEmployee1, testEmployee2));
+
+      KeysetPage<Employee> page = employeeService.findEmployeesAfter(0, 1);
+
+      assertEquals(1, page.getContent().size());
+      assertEquals("Max", page.getContent().get(0).getFirstname());
+      assertEquals(1, page.getNextAfter());
+   }
+
+   @Test
+   void findEmployeesAfter_whenLastPage_shouldReturnNoCursor() {
+      when(employeeRepo.findByIdGreaterThanOrderByIdAsc(1, Limit.of(11)))
+              .thenReturn(Arrays.asList(testEmployee2));
+
+      KeysetPage<Employee> page = employeeService.findEmployeesAfter(1, 10);
+
+      assertEquals(1, page.getContent().size());
+      assertNull(page.getNextAfter());
+   }
+
+   @Test
+   void findEmployeesAfter_shouldLimitPageSize() {
+      employeeService.findEmployeesAfter(0, 100000);
+
+      verify(employeeRepo, times(1))
+              .findByIdGreaterThanOrderByIdAsc(0, Limit.of(EmployeeService.MAX_PAGE_SIZE + 1));
+   }
+
+   @Test
+   void findEmployeeSummariesAfter_shouldReturnProjectionPage() {
+      when(employeeRepo.findSummariesAfter(0, Limit.of(2)))
+              .thenReturn(Arrays.asList(EmployeeSummary.of(testEmployee1), EmployeeSummary.of(testEmployee2)));
+
+      Versioned<KeysetPage<EmployeeSummary>> versioned = employeeService.findEmployeeSummariesAfter(0, 1);
+      KeysetPage<EmployeeSummary> page = versioned.getContent();
+
+      assertEquals(dataVersions.getVersion(), versioned.getVersion());
+      assertEquals(1, page.getContent().size());
+      assertEquals("IT", page.getContent().get(0).getDepartmentDescription());
+      assertEquals(1, page.getNextAfter());
+      verify(employeeRepo, never()).findByIdGreaterThanOrderByIdAsc(anyInt(), any());
+   }
+
+   @Test
+   void findEmployeeSummariesAfter_whenWriteCommitsDuringCoalescedRead_shouldNotJoinTheOlderRead() throws Exception {
+      CountDownLatch firstReading = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      EmployeeSummary before = EmployeeSummary.of(testEmployee1);
+      EmployeeSummary after = new EmployeeSummary(1, "Max", "Neumann", 1, "IT");
+      when(employeeRepo.findSummariesAfter(0, Limit.of(51)))
+              .thenAnswer(invocation -> {
+                 firstReading.countDown();
+                 assertTrue(release.await(5, TimeUnit.SECONDS));
+                 return List.of(before);
+              })
+              .thenReturn(List.of(after));
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         Future<Versioned<KeysetPage<EmployeeSummary>>> first = executor.submit(() -> employeeService.findEmployeeSummariesAfter(0, 50));
+         assertTrue(firstReading.await(5, TimeUnit.SECONDS));
+         // die Änderung wird committet, während der erste Read noch läuft
+         dataVersions.onEmployeeChanged(EmployeeChangedEvent.changed(before, testEmployee1));
+
+         Versioned<KeysetPage<EmployeeSummary>> second = employeeService.findEmployeeSummariesAfter(0, 50);
+         release.countDown();
+         Versioned<KeysetPage<EmployeeSummary>> firstResult = first.get(5, TimeUnit.SECONDS);
+
+         assertEquals(List.of(after), second.getContent().getContent());
+         assertEquals(dataVersions.getVersion(), second.getVersion());
+         assertEquals(List.of(before), firstResult.getContent().getContent());
+         assertNotEquals(firstResult.getVersion(), second.getVersion());
+         assertEquals(0, employeeService.getCoalescedReads());
+         verify(employeeRepo, times(2)).findSummariesAfter(0, Limit.of(51));
+      } finally {
+         release.countDown();
+         executor.shutdownNow();
+      }
+   }
+
+   @Test
+   void addEmployee_shouldSaveAndReturnCreatedEmployee() {
       when(employeeRepo.save(any(Employee.class))).thenReturn(testEmployee1);
-      when(employeeRepo.findAll()).thenReturn(employees);
 
-      Iterable<Employee> result = employeeService.addEmployee("Max", "Mustermann");
+      MutationResult result = employeeService.addEmployee("Max", "Mustermann");
 
-      assertNotNull(result);
+      assertEquals(1, result.getCount());
+      assertEquals(testEmployee1, result.getEmployees().get(0));
       verify(employeeRepo, times(1)).save(any(Employee.class));
-      verify(employeeRepo, times(1)).findAll();
+      verify(employeeRepo, never()).findAll();
+      verify(eventPublisher).publishEvent(EmployeeChangedEvent.created(testEmployee1));
    }
 
    @Test
@@ -100,10 +214,10 @@ class EmployeeServiceTest {
       List<Department> departments = Arrays.asList(testDepartment);
       when(departmentRepo.findAll()).thenReturn(departments);
       when(employeeRepo.save(any(Employee.class))).thenReturn(testEmployee1);
-      when(employeeRepo.findAll()).thenReturn(Arrays.asList(testEmployee1));
-      Iterable<Employee> result = employeeService.addEmployeeToFirstDepartment("Max", "Mustermann");
+      MutationResult result = employeeService.addEmployeeToFirstDepartment("Max", "Mustermann");
 
-      assertNotNull(result);
+      assertEquals(1, result.getCount());
+      assertEquals("IT", result.getEmployees().get(0).getDepartment().getDescription());
       verify(departmentRepo, times(1)).findAll();
       verify(employeeRepo, times(1)).save(any(Employee.class));
    }
@@ -133,6 +247,36 @@ class EmployeeServiceTest {
       verify(employeeRepo, times(1)).findById(999);
    }
 
+   @Test
+   void getEmployeeSummaryById_shouldReturnProjection() {
+      when(employeeRepo.findSummaryById(1)).thenReturn(Optional.of(EmployeeSummary.of(testEmployee1)));
+
+      Optional<EmployeeSummary> result = employeeService.getEmployeeSummaryById(1);
+
+      assertTrue(result.isPresent());
+      assertEquals("Mustermann", result.get().getLastname());
+      assertEquals(1, result.get().getDepartmentId());
+      verify(employeeRepo, never()).findById(anyInt());
+   }
+
+   @Test
+   void getEmployeeSummaryByName_whenExists_shouldReturnFirst() {
+      when(employeeRepo.findSummariesByLastname("Mustermann"))
+              .thenReturn(Arrays.asList(EmployeeSummary.of(testEmployee1)));
+
+      Optional<EmployeeSummary> result = employeeService.getEmployeeSummaryByName("Mustermann");
+
+      assertTrue(result.isPresent());
+      assertEquals("IT", result.get().getDepartmentDescription());
+   }
+
+   @Test
+   void getEmployeeSummaryByName_whenNotExists_shouldReturnEmpty() {
+      when(employeeRepo.findSummariesByLastname("Unknown")).thenReturn(Arrays.asList());
+
+      assertFalse(employeeService.getEmployeeSummaryByName("Unknown").isPresent());
+   }
+
    @Test
    void getEmployeeByName_whenExists_shouldReturnEmployee() {
       when(employeeRepo.findByLastname("Mustermann")).thenReturn(Arrays.asList(testEmployee1));
@@ -157,53 +301,251 @@ class EmployeeServiceTest {
    }
 
    @Test
-   void updateEmployeeLastname_whenExists_shouldUpdateAndReturnAll() {
+   void getEmployeeByName_whenFilteredOut_shouldNotQuery() {
+      when(lastnameFilter.isAbsent("Unknown")).thenReturn(true);
+
+      assertTrue(employeeService.getEmployeeByName("Unknown").isEmpty());
+      assertTrue(employeeService.getEmployeeSummaryByName("Unknown").isEmpty());
+      verifyNoInteractions(employeeRepo);
+   }
+
+   @Test
+   void getEmployeeByName_whenFilterPassesButNotExists_shouldRecordFalsePositive() {
+      when(employeeRepo.findByLastname("Unknown")).thenReturn(List.of());
+
+      assertTrue(employeeService.getEmployeeByName("Unknown").isEmpty());
+      verify(lastnameFilter).recordFalsePositive();
+   }
+
+   @Test
+   void updateEmployeeLastname_whenExists_shouldUpdateAndReturnUpdated() {
       when(employeeRepo.findByLastname("Mustermann")).thenReturn(Arrays.asList(testEmployee1));
       when(employeeRepo.save(any(Employee.class))).thenReturn(testEmployee1);
-      when(employeeRepo.findAll()).thenReturn(Arrays.asList(testEmployee1));
-      Iterable<Employee> result = employeeService.updateEmployeeLastname("Mustermann", "Neumann");
+      MutationResult result = employeeService.updateEmployeeLastname("Mustermann", "Neumann");
 
-      assertNotNull(result);
+      assertEquals(1, result.getCount());
+      assertEquals("Neumann", result.getEmployees().get(0).getLastname());
       verify(employeeRepo, times(1)).findByLastname("Mustermann");
       verify(employeeRepo, times(1)).save(any(Employee.class));
-      verify(employeeRepo, times(1)).findAll();
+      verify(employeeRepo, never()).findAll();
+      verify(eventPublisher).publishEvent(argThat((EmployeeChangedEvent event) ->
+              event.getPrevious().getLastname().equals("Mustermann") && event.getCurrent().getLastname().equals("Neumann")));
+   }
+
+   @Test
+   void createEmployees_shouldSaveAllAndPublishOneEventEach() {
+      when(employeeRepo.save(any(Employee.class))).thenReturn(testEmployee1, testEmployee2);
+
+      List<Employee> result = employeeService.createEmployees(List.of(new Employee(), new Employee()));
+
+      assertEquals(List.of(testEmployee1, testEmployee2), result);
+      verify(eventPublisher, times(2)).publishEvent(argThat((EmployeeChangedEvent event) -> event.getPrevious() == null));
+   }
+
+   @Test
+   void updateEmployeeLastname_whenChangedConcurrently_shouldRetryWithFreshEmployee() {
+      Employee fresh = Employee.builder().id(1).firstname("Maximilian").lastname("Mustermann").department(testDepartment).build();
+      when(employeeRepo.findByLastname("Mustermann")).thenReturn(List.of(testEmployee1)).thenReturn(List.of(fresh));
+      when(employeeRepo.save(any(Employee.class)))
+              .thenThrow(new ObjectOptimisticLockingFailureException(Employee.class, 1))
+              .thenReturn(fresh);
+
+      MutationResult result = employeeService.updateEmployeeLastname("Mustermann", "Neumann");
+
+      assertEquals(1, result.getCount());
+      assertEquals("Maximilian", result.getEmployees().get(0).getFirstname());
+      assertEquals("Neumann", result.getEmployees().get(0).getLastname());
+      verify(employeeRepo, times(2)).findByLastname("Mustermann");
+      verify(transactionManager).rollback(any());
+      verify(transactionManager).commit(any());
+      verify(eventPublisher, times(1)).publishEvent(any(EmployeeChangedEvent.class));
    }
 
    @Test
    void updateEmployeeLastname_whenNotExists_shouldNotUpdate() {
       when(employeeRepo.findByLastname("Unknown")).thenReturn(Arrays.asList());
-      when(employeeRepo.findAll()).thenReturn(Arrays.asList(testEmployee1));
-      Iterable<Employee> result = employeeService.updateEmployeeLastname("Unknown", "Neumann");
+      MutationResult result = employeeService.updateEmployeeLastname("Unknown", "Neumann");
 
-      assertNotNull(result);
+      assertEquals(0, result.getCount());
+      assertTrue(result.getEmployees().isEmpty());
       verify(employeeRepo, times(1)).findByLastname("Unknown");
       verify(employeeRepo, never()).save(any(Employee.class));
-      verify(employeeRepo, times(1)).findAll();
+      verify(employeeRepo, never()).findAll();
+      verifyNoInteractions(eventPublisher);
+   }
+
+   @Test
+   void updateAndDelete_whenFilteredOut_shouldNotQuery() {
+      when(lastnameFilter.isAbsent("Unknown")).thenReturn(true);
+
+      assertEquals(0, employeeService.updateEmployeeLastname("Unknown", "Neumann").getCount());
+      assertEquals(0, employeeService.deleteEmployeeByLastname("Unknown").getCount());
+      assertEquals(0, employeeService.deleteAllEmployeesByLastname("Unknown"));
+      verifyNoInteractions(employeeRepo);
+      verify(lastnameFilter, never()).add(any());
+   }
+
+   @Test
+   void addEmployee_shouldAddLastnameToFilterBeforeSaving() {
+      when(employeeRepo.save(any(Employee.class))).thenReturn(testEmployee1);
+
+      employeeService.addEmployee("Max", "Mustermann");
+
+      var order = inOrder(lastnameFilter, employeeRepo);
+      order.verify(lastnameFilter).add("Mustermann");
+      order.verify(employeeRepo).save(any(Employee.class));
    }
 
    @Test
-   void deleteEmployeeByLastname_whenExists_shouldDeleteAndReturnRemaining() {
+   void deleteEmployeeByLastname_whenExists_shouldDeleteAndReturnDeleted() {
       when(employeeRepo.findByLastname("Mustermann")).thenReturn(Arrays.asList(testEmployee1));
       doNothing().when(employeeRepo).delete(testEmployee1);
-      when(employeeRepo.findAll()).thenReturn(Arrays.asList(testEmployee2));
-      Iterable<Employee> result = employeeService.deleteEmployeeByLastname("Mustermann");
+      MutationResult result = employeeService.deleteEmployeeByLastname("Mustermann");
 
-      assertNotNull(result);
+      assertEquals(1, result.getCount());
+      assertEquals(testEmployee1, result.getEmployees().get(0));
       verify(employeeRepo, times(1)).findByLastname("Mustermann");
       verify(employeeRepo, times(1)).delete(testEmployee1);
-      verify(employeeRepo, times(1)).findAll();
+      verify(employeeRepo, never()).findAll();
+      verify(eventPublisher).publishEvent(EmployeeChangedEvent.deleted(testEmployee1));
    }
 
    @Test
    void deleteEmployeeByLastname_whenNotExists_shouldNotDelete() {
       when(employeeRepo.findByLastname("Unknown")).thenReturn(Arrays.asList());
-      when(employeeRepo.findAll()).thenReturn(Arrays.asList(testEmployee1, testEmployee2));
-      Iterable<Employee> result = employeeService.deleteEmployeeByLastname("Unknown");
+      MutationResult result = employeeService.deleteEmployeeByLastname("Unknown");
 
-      assertNotNull(result);
+      assertEquals(0, result.getCount());
       verify(employeeRepo, times(1)).findByLastname("Unknown");
       verify(employeeRepo, never()).delete(any(Employee.class));
-      verify(employeeRepo, times(1)).findAll();
+      verify(employeeRepo, never()).findAll();
+   }
+
+   @Test
+   void renameAllEmployees_shouldReturnAffectedRows() {
+      when(employeeRepo.renameAllByLastname("Mustermann", "Neumann")).thenReturn(2);
+
+      assertEquals(2, employeeService.renameAllEmployees("Mustermann", "Neumann"));
+      verify(employeeRepo, never()).findByLastname(any());
+      verify(eventPublisher).publishEvent(EmployeeChangedEvent.bulk());
+   }
+
+   @Test
+   void renameAllEmployees_whenNoneAffected_shouldNotPublishEvent() {
+      when(employeeRepo.renameAllByLastname("Unknown", "Neumann")).thenReturn(0);
+
+      assertEquals(0, employeeService.renameAllEmployees("Unknown", "Neumann"));
+      verifyNoInteractions(eventPublisher);
+   }
+
+   @Test
+   void deleteAllEmployeesByLastname_shouldReturnAffectedRows() {
+      when(employeeRepo.deleteAllByLastname("Mustermann")).thenReturn(2);
+
+      assertEquals(2, employeeService.deleteAllEmployeesByLastname("Mustermann"));
+      verify(employeeRepo, never()).delete(any(Employee.class));
+   }
+
+   @Test
+   void moveEmployeesToDepartment_whenNoIds_shouldNotQuery() {
+      assertEquals(0, employeeService.moveEmployeesToDepartment(List.of(), testDepartment));
+      verify(employeeRepo, never()).moveAllToDepartment(any(), any());
+   }
+
+   @Test
+   void transferEmployee_shouldPublishPreviousAndNewDepartment() {
+      Department hrDepartment = Department.builder().id(2).description("HR").build();
+      when(employeeRepo.save(testEmployee1)).thenReturn(testEmployee1);
+
+      Employee result = employeeService.transferEmployee(testEmployee1, hrDepartment);
+
+      assertEquals("HR", result.getDepartment().getDescription());
+      verify(eventPublisher).publishEvent(argThat((EmployeeChangedEvent event) ->
+              event.getPrevious().getDepartmentId() == 1 && event.getCurrent().getDepartmentId() == 2));
+   }
+
+   @Test
+   void getEmployeeSummariesByIds_shouldKeepRequestOrderAndReportMissing() {
+      EmployeeSummary sum1 = EmployeeSummary.of(testEmployee1);
+      EmployeeSummary sum2 = EmployeeSummary.of(testEmployee2);
+      when(employeeRepo.findSummariesByIdIn(List.of(2, 1, 99))).thenReturn(List.of(sum1, sum2));
+
+      MultiGetResult<EmployeeSummary> result = employeeService.getEmployeeSummariesByIds(List.of(2, 1, 99, 2));
+
+      assertEquals(List.of(sum2, sum1), result.getFound());
+      assertEquals(List.of(99), result.getMissing());
+   }
+
+   @Test
+   void getEmployeeSummariesByIds_shouldQueryInChunks() {
+      when(employeeRepo.findSummariesByIdIn(anyList())).thenReturn(List.of());
+      List<Integer> ids = IntStream.rangeClosed(1, 1200).boxed().toList();
+
+      MultiGetResult<EmployeeSummary> result = employeeService.getEmployeeSummariesByIds(ids);
+
+      assertEquals(1200, result.getMissing().size());
+      verify(employeeRepo, times(3)).findSummariesByIdIn(anyList());
+      verify(employeeRepo, never()).findById(anyInt());
+   }
+
+   @Test
+   void scanEmployeeSummaries_shouldReadAllChunks() {
+      EmployeeSummary sum1 = EmployeeSummary.of(testEmployee1);
+      EmployeeSummary sum2 = EmployeeSummary.of(testEmployee2);
+      when(employeeRepo.findSummariesAfter(0, Limit.of(1))).thenReturn(List.of(sum1));
+      when(employeeRepo.findSummariesAfter(1, Limit.of(1))).thenReturn(List.of(sum2));
+      when(employeeRepo.findSummariesAfter(2, Limit.of(1))).thenReturn(List.of());
+      List<EmployeeSummary> scanned = new ArrayList<>();
+
+      long rows = employeeService.scanEmployeeSummaries(1, scanned::add);
+
+      assertEquals(2, rows);
+      assertEquals(List.of(sum1, sum2), scanned);
+   }
+
+   @Test
+   void streamEmployeeSummaries_shouldPassAllAndCloseTheStream() {
+      EmployeeSummary sum1 = EmployeeSummary.of(testEmployee1);
+      EmployeeSummary sum2 = EmployeeSummary.of(testEmployee2);
+      boolean[] closed = {false};
+      when(employeeRepo.streamSummaries()).thenReturn(Stream.of(sum1, sum2).onClose(() -> closed[0] = true));
+      List<EmployeeSummary> streamed = new ArrayList<>();
+
+      long rows = employeeService.streamEmployeeSummaries(streamed::add);
+
+      assertEquals(2, rows);
+      assertEquals(List.of(sum1, sum2), streamed);
+      assertTrue(closed[0]);
+   }
+
+   @Test
+   void iterateEmployeeSummariesAfter_shouldReadOnlyWhileIterating() {
+      EmployeeSummary sum1 = EmployeeSummary.of(testEmployee1);
+      EmployeeSummary sum2 = EmployeeSummary.of(testEmployee2);
+      when(employeeRepo.findSummariesAfter(0, Limit.of(EmployeeService.MAX_PAGE_SIZE))).thenReturn(List.of(sum1, sum2));
+
+      Iterable<EmployeeSummary> employees = employeeService.iterateEmployeeSummariesAfter(0);
+      verify(employeeRepo, never()).findSummariesAfter(anyInt(), any());
+      List<EmployeeSummary> iterated = new ArrayList<>();
+      employees.forEach(iterated::add);
+
+      assertEquals(List.of(sum1, sum2), iterated);
+      verify(employeeRepo, times(1)).findSummariesAfter(anyInt(), any());
+   }
+
+   @Test
+   void iterateEmployeeSummariesByDepartment_shouldReadTheDepartmentInChunks() {
+      EmployeeSummary sum1 = EmployeeSummary.of(testEmployee1);
+      when(employeeRepo.findSummariesByDepartmentIdAfter(1, 0, Limit.of(EmployeeService.MAX_PAGE_SIZE)))
+              .thenReturn(List.of(sum1));
+
+      Iterator<EmployeeSummary> employees = employeeService
+              .iterateEmployeeSummariesByDepartment(testEmployee1.getDepartment()).iterator();
+
+      assertTrue(employees.hasNext());
+      assertEquals(sum1, employees.next());
+      assertFalse(employees.hasNext());
+      assertThrows(NoSuchElementException.class, employees::next);
    }
 
    @Test
@@ -230,4 +572,63 @@ class EmployeeServiceTest {
       assertEquals("IT", result.get(1).getDepartment().getDescription());
       verify(employeeRepo, times(1)).findByDepartment(testDepartment);
    }
+
+   @Test
+   void importEmployees_shouldSaveInBatchesAndReport() {
+      Stream<Employee> employees = Stream.of(testEmployee1, testEmployee2,
+              Employee.builder().firstname("Eva").lastname("Meier").build());
+
+      ImportReport report = employeeService.importEmployees(employees, 2);
+
+      assertEquals(3, report.getRows());
+      assertTrue(report.getRowsPerSecond() > 0);
+      verify(employeeRepo, times(2)).saveAll(anyList());
+      verify(employeeRepo, times(2)).flushAndClear();
+   }
+
+   @Test
+   void importEmployees_whenBatchSizeOutOfRange_shouldThrowException() {
+      assertThrows(IllegalArgumentException.class, () -> employeeService.importEmployees(Stream.of(testEmployee1), 0));
+      assertThrows(IllegalArgumentException.class,
+              () -> employeeService.importEmployees(Stream.of(testEmployee1), EmployeeService.MAX_IMPORT_BATCH_SIZE + 1));
+      verify(employeeRepo, never()).saveAll(anyList());
+   }
+
+   @Test
+   void importEmployees_whenEmpty_shouldNotSave() {
+      ImportReport report = employeeService.importEmployees(Stream.empty(), 50);
+
+      assertEquals(0, report.getRows());
+      verify(employeeRepo, never()).saveAll(anyList());
+   }
+
+   @Test
+   void exportEmployees_asCsv_shouldWriteHeaderAndRowsAndDetach() throws IOException {
+      Employee withoutDepartment = Employee.builder().id(3).firstname("Hans").lastname("Muster, Jr.").build();
+      when(employeeRepo.streamAll()).thenReturn(Stream.of(testEmployee1, withoutDepartment));
+      StringWriter writer = new StringWriter();
+
+      long rows = employeeService.exportEmployees(ExportFormat.CSV, writer);
+
+      assertEquals(2, rows);
+      assertEquals("id,firstname,lastname,departmentId,departmentDescription\n"
+              + "1,Max,Mustermann,1,IT\n"
+              + "3,Hans,\"Muster, Jr.\",,\n", writer.toString());
+      verify(employeeRepo).detach(testEmployee1);
+      verify(employeeRepo).detach(withoutDepartment);
+   }
+
+   @Test
+   void exportEmployees_asNdjson_shouldWriteOneJsonObjectPerLine() throws IOException {
+      when(employeeRepo.streamAll()).thenReturn(Stream.of(testEmployee1, testEmployee2));
+      StringWriter writer = new StringWriter();
+
+      long rows = employeeService.exportEmployees(ExportFormat.NDJSON, writer);
+
+      assertEquals(2, rows);
+      String[] lines = writer.toString().split("\n");
+      assertEquals(2, lines.length);
+      assertEquals("{\"id\":1,\"firstname\":\"Max\",\"lastname\":\"Mustermann\",\"departmentId\":1,"
+              + "\"departmentDescription\":\"IT\"}", lines[0]);
+   }
 }
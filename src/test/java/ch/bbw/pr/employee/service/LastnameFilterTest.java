@@ -0,0 +1,125 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.Department;
+import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import ch.bbw.pr.employee.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * LastnameFilterTest
+ * Prüft, dass der Bloom-Filter unbekannte Nachnamen erkennt und bekannte nie abweist
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@ExtendWith(MockitoExtension.class)
+class LastnameFilterTest {
+
+   @Mock
+   private EmployeeRepository employeeRepo;
+
+   private LastnameFilter filter;
+   private Department itDept;
+
+   @BeforeEach
+   void setUp() {
+      filter = new LastnameFilter(employeeRepo, true, 1000, 0.01);
+      itDept = Department.builder().id(1).description("IT").build();
+   }
+
+   private EmployeeSummary summary(int id, String lastname) {
+      return EmployeeSummary.of(Employee.builder().id(id).firstname("Max").lastname(lastname).department(itDept).build());
+   }
+
+   @Test
+   void isAbsent_beforeBuild_shouldAlwaysBeFalse() {
+      assertFalse(filter.isReady());
+      assertFalse(filter.isAbsent("Unknown"));
+      assertEquals(0, filter.getAvoidedQueries());
+   }
+
+   @Test
+   void build_shouldScanAllEmployeesInChunks() {
+      List<EmployeeSummary> firstChunk = IntStream.rangeClosed(1, 1000).mapToObj(id -> summary(id, "Name" + id)).toList();
+      when(employeeRepo.findSummariesAfter(0, Limit.of(1000))).thenReturn(firstChunk);
+      when(employeeRepo.findSummariesAfter(1000, Limit.of(1000))).thenReturn(List.of(summary(1001, "Mustermann")));
+
+      filter.build();
+
+      assertTrue(filter.isReady());
+      assertFalse(filter.isAbsent("Name1"));
+      assertFalse(filter.isAbsent("Name1000"));
+      assertFalse(filter.isAbsent("Mustermann"));
+      assertTrue(filter.isAbsent("Unknown"));
+      assertEquals(1, filter.getAvoidedQueries());
+   }
+
+   @Test
+   void isAbsent_shouldMatchLikeTheColumnCollation() {
+      when(employeeRepo.findSummariesAfter(0, Limit.of(1000)))
+              .thenReturn(List.of(summary(1, "Müller"), summary(2, "Straße")));
+
+      filter.build();
+
+      assertFalse(filter.isAbsent("MULLER"));
+      assertFalse(filter.isAbsent("müller  "));
+      assertFalse(filter.isAbsent("Strasse"));
+      assertFalse(filter.isAbsent("strase"));
+   }
+
+   @Test
+   void add_shouldBeVisibleAfterBuild() {
+      when(employeeRepo.findSummariesAfter(0, Limit.of(1000))).thenReturn(List.of());
+      filter.build();
+      assertTrue(filter.isAbsent("Neumann"));
+
+      filter.add("Neumann");
+
+      assertFalse(filter.isAbsent("Neumann"));
+   }
+
+   @Test
+   void isAbsent_shouldKeepTheFalsePositiveRate() {
+      when(employeeRepo.findSummariesAfter(0, Limit.of(1000)))
+              .thenReturn(IntStream.rangeClosed(1, 999).mapToObj(id -> summary(id, "Name" + id)).toList());
+      filter.build();
+
+      long falsePositives = IntStream.range(0, 10_000).filter(i -> !filter.isAbsent("Other" + i)).count();
+
+      assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+   }
+
+   @Test
+   void build_whenQueryFails_shouldStayNotReady() {
+      when(employeeRepo.findSummariesAfter(anyInt(), any())).thenThrow(new IllegalStateException("no table"));
+
+      filter.build();
+
+      assertFalse(filter.isReady());
+      assertFalse(filter.isAbsent("Unknown"));
+   }
+
+   @Test
+   void disabled_shouldNeverQueryOrAnswer() {
+      LastnameFilter disabled = new LastnameFilter(employeeRepo, false, 1000, 0.01);
+
+      disabled.build();
+      disabled.add("Mustermann");
+
+      assertFalse(disabled.isAbsent("Unknown"));
+      verifyNoInteractions(employeeRepo);
+   }
+}
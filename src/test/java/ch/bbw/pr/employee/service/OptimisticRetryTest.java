@@ -0,0 +1,111 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.Employee;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * OptimisticRetryTest
+ * Prüft, dass Konflikte der optimistischen Sperre wiederholt, gezählt und nach dem letzten Versuch weitergegeben werden
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@ExtendWith(MockitoExtension.class)
+class OptimisticRetryTest {
+
+   @Mock
+   private PlatformTransactionManager transactionManager;
+
+   private OptimisticRetry retry;
+
+   @BeforeEach
+   void setUp() {
+      retry = new OptimisticRetry(transactionManager, 3, Duration.ofMillis(1));
+   }
+
+   @AfterEach
+   void tearDown() {
+      TransactionSynchronizationManager.setActualTransactionActive(false);
+   }
+
+   private static ObjectOptimisticLockingFailureException conflict() {
+      return new ObjectOptimisticLockingFailureException(Employee.class, 1);
+   }
+
+   @Test
+   void execute_withConflicts_shouldRetryInNewTransactions() {
+      AtomicInteger attempts = new AtomicInteger();
+
+      String result = retry.execute("test", () -> {
+         if (attempts.incrementAndGet() < 3) {
+            throw conflict();
+         }
+         return "saved";
+      });
+
+      assertEquals("saved", result);
+      assertEquals(3, attempts.get());
+      verify(transactionManager, times(3)).getTransaction(any());
+      verify(transactionManager, times(2)).rollback(any());
+      verify(transactionManager, times(1)).commit(any());
+      assertEquals(1, retry.getCommitted());
+      assertEquals(2, retry.getConflicts());
+      assertEquals(0, retry.getFailed());
+   }
+
+   @Test
+   void execute_whenAllAttemptsConflict_shouldThrow() {
+      AtomicInteger attempts = new AtomicInteger();
+
+      assertThrows(ObjectOptimisticLockingFailureException.class, () -> retry.execute("test", () -> {
+         attempts.incrementAndGet();
+         throw conflict();
+      }));
+
+      assertEquals(3, attempts.get());
+      assertEquals(3, retry.getConflicts());
+      assertEquals(1, retry.getFailed());
+      assertEquals(0, retry.getCommitted());
+   }
+
+   @Test
+   void execute_withOtherException_shouldNotRetry() {
+      AtomicInteger attempts = new AtomicInteger();
+
+      assertThrows(IllegalStateException.class, () -> retry.execute("test", () -> {
+         attempts.incrementAndGet();
+         throw new IllegalStateException("broken");
+      }));
+
+      assertEquals(1, attempts.get());
+      assertEquals(0, retry.getConflicts());
+   }
+
+   @Test
+   void execute_insideTransaction_shouldRunOnceAndLeaveRetryToCaller() {
+      TransactionSynchronizationManager.setActualTransactionActive(true);
+      AtomicInteger attempts = new AtomicInteger();
+
+      assertThrows(ObjectOptimisticLockingFailureException.class, () -> retry.execute("test", () -> {
+         attempts.incrementAndGet();
+         throw conflict();
+      }));
+
+      assertEquals(1, attempts.get());
+      verifyNoInteractions(transactionManager);
+   }
+}
@@ -0,0 +1,151 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static ch.bbw.pr.employee.service.SnapshotFixture.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReloadableSnapshotTest
+ * Prüft das Laden im Hintergrund: Änderungen während des Ladens, Fehler beim Laden und das Abschalten
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+@ExtendWith(MockitoExtension.class)
+class ReloadableSnapshotTest {
+
+   @Mock
+   private EmployeeService employeeService;
+
+   private Snapshot snapshot;
+
+   // die einfachste Kopie: die Summaries nach Id
+   private static class Snapshot extends ReloadableSnapshot<Map<Integer, EmployeeSummary>> {
+      private final EmployeeService employeeService;
+
+      Snapshot(EmployeeService employeeService, boolean enabled) {
+         super("test-snapshot", enabled, new TreeMap<>());
+         this.employeeService = employeeService;
+      }
+
+      @Override
+      protected Map<Integer, EmployeeSummary> load() {
+         Map<Integer, EmployeeSummary> loaded = new TreeMap<>();
+         employeeService.streamEmployeeSummaries(employee -> loaded.put(employee.getId(), employee));
+         return loaded;
+      }
+
+      @Override
+      protected void apply(Map<Integer, EmployeeSummary> employees, EmployeeChangedEvent event) {
+         if (event.getPrevious() != null) {
+            employees.remove(event.getPrevious().getId());
+         }
+         if (event.getCurrent() != null) {
+            employees.put(event.getCurrent().getId(), event.getCurrent());
+         }
+      }
+
+      @Override
+      protected String describe(Map<Integer, EmployeeSummary> employees) {
+         return employees.size() + " employees";
+      }
+
+      Map<Integer, EmployeeSummary> employees() {
+         return snapshot();
+      }
+   }
+
+   @BeforeEach
+   void setUp() {
+      snapshot = new Snapshot(employeeService, true);
+   }
+
+   @AfterEach
+   void tearDown() {
+      snapshot.shutdown();
+   }
+
+   @Test
+   void reload_shouldReplaceTheSnapshot() {
+      doAnswer(reading(employee(1, "Max", "Mustermann", IT), employee(2, "Eva", "Muster", null)))
+              .when(employeeService).streamEmployeeSummaries(any());
+
+      assertFalse(snapshot.isReady());
+      snapshot.reload();
+
+      assertTrue(snapshot.isReady());
+      assertEquals(2, snapshot.employees().size());
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   void reload_shouldApplyChangesMadeWhileLoading() {
+      Employee renamed = employee(2, "Eva", "Neumann", IT);
+      Employee removed = employee(3, "Tom", "Keller", HR);
+      doAnswer(invocation -> {
+         Consumer<EmployeeSummary> consumer = invocation.getArgument(0);
+         consumer.accept(EmployeeSummary.of(employee(1, "Max", "Mustermann", IT)));
+         // geändert und gelöscht, nachdem die Datenbank den alten Stand gelesen hat
+         snapshot.onEmployeeChanged(EmployeeChangedEvent.changed(null, renamed));
+         snapshot.onEmployeeChanged(EmployeeChangedEvent.deleted(removed));
+         consumer.accept(EmployeeSummary.of(employee(2, "Eva", "Muster", IT)));
+         consumer.accept(EmployeeSummary.of(removed));
+         return 3L;
+      }).when(employeeService).streamEmployeeSummaries(any());
+
+      snapshot.reload();
+
+      assertEquals(2, snapshot.employees().size());
+      assertEquals("Neumann", snapshot.employees().get(2).getLastname());
+   }
+
+   @Test
+   void reload_whenLoadFails_shouldKeepThePreviousSnapshot() {
+      doAnswer(reading(employee(1, "Max", "Mustermann", IT))).when(employeeService).streamEmployeeSummaries(any());
+      snapshot.reload();
+      doThrow(new IllegalStateException("connection lost")).when(employeeService).streamEmployeeSummaries(any());
+
+      snapshot.reload();
+
+      assertTrue(snapshot.isReady());
+      assertEquals(1, snapshot.employees().size());
+   }
+
+   @Test
+   void onEmployeeChanged_withBulkEvent_shouldReloadInTheBackground() {
+      doAnswer(reading(employee(1, "Max", "Mustermann", IT))).when(employeeService).streamEmployeeSummaries(any());
+
+      snapshot.onEmployeeChanged(EmployeeChangedEvent.bulk());
+
+      verify(employeeService, timeout(5000)).streamEmployeeSummaries(any());
+   }
+
+   @Test
+   void onEmployeeChanged_whenDisabled_shouldNotLoad() {
+      Snapshot disabled = new Snapshot(employeeService, false);
+      try {
+         disabled.onEmployeeChanged(EmployeeChangedEvent.bulk());
+         disabled.onEmployeeChanged(EmployeeChangedEvent.created(employee(1, "Max", "Mustermann", IT)));
+         disabled.onApplicationReady();
+
+         assertFalse(disabled.isReady());
+         assertEquals(0, disabled.employees().size());
+         verify(employeeService, never()).streamEmployeeSummaries(any());
+      } finally {
+         disabled.shutdown();
+      }
+   }
+}
@@ -0,0 +1,101 @@
+package ch.bbw.pr.employee.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SingleFlightTest
+ * Prüft, dass gleichzeitige identische Reads nur einmal ausgeführt werden
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+class SingleFlightTest {
+
+   private final SingleFlight singleFlight = new SingleFlight();
+   private final ExecutorService executor = Executors.newFixedThreadPool(2);
+   private final CountDownLatch release = new CountDownLatch(1);
+   private final AtomicInteger executions = new AtomicInteger();
+
+   @AfterEach
+   void tearDown() {
+      executor.shutdownNow();
+   }
+
+   private String blockingRead() {
+      executions.incrementAndGet();
+      try {
+         assertTrue(release.await(5, TimeUnit.SECONDS));
+      } catch (InterruptedException e) {
+         throw new IllegalStateException(e);
+      }
+      return "IT";
+   }
+
+   private void awaitCoalesced(long expected) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (singleFlight.getCoalesced() < expected && System.nanoTime() < deadline) {
+         Thread.sleep(1);
+      }
+   }
+
+   private void awaitExecutions(int expected) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (executions.get() < expected && System.nanoTime() < deadline) {
+         Thread.sleep(1);
+      }
+   }
+
+   @Test
+   void execute_whenSameReadInFlight_shouldShareOneExecution() throws Exception {
+      Future<String> first = executor.submit(() -> singleFlight.execute("read", 1, this::blockingRead));
+      Future<String> second = executor.submit(() -> singleFlight.execute("read", 1, this::blockingRead));
+      awaitCoalesced(1);
+      release.countDown();
+
+      assertEquals("IT", first.get(5, TimeUnit.SECONDS));
+      assertEquals("IT", second.get(5, TimeUnit.SECONDS));
+      assertEquals(1, executions.get());
+      assertEquals(1, singleFlight.getExecuted());
+      assertEquals(1, singleFlight.getCoalesced());
+   }
+
+   @Test
+   void execute_whenReadFails_shouldThrowInAllWaitingCalls() throws Exception {
+      Future<String> first = executor.submit(() -> singleFlight.execute("read", 1, () -> {
+         blockingRead();
+         throw new IllegalStateException("database down");
+      }));
+      // the failing read must be the one in flight
+      awaitExecutions(1);
+      Future<String> second = executor.submit(() -> singleFlight.execute("read", 1, this::blockingRead));
+      awaitCoalesced(1);
+      release.countDown();
+
+      Exception firstError = assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+      Exception secondError = assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+      assertInstanceOf(IllegalStateException.class, firstError.getCause());
+      assertInstanceOf(IllegalStateException.class, secondError.getCause());
+      assertEquals(1, executions.get());
+   }
+
+   @Test
+   void execute_afterCompletion_shouldNotCacheResult() {
+      release.countDown();
+
+      singleFlight.execute("read", 1, this::blockingRead);
+      singleFlight.execute("read", 1, this::blockingRead);
+      singleFlight.execute("read", 2, this::blockingRead);
+
+      assertEquals(3, executions.get());
+      assertEquals(0, singleFlight.getCoalesced());
+   }
+}
@@ -0,0 +1,40 @@
+package ch.bbw.pr.employee.service;
+
+import ch.bbw.pr.employee.model.Department;
+import ch.bbw.pr.employee.model.Employee;
+import ch.bbw.pr.employee.model.EmployeeSummary;
+import org.mockito.stubbing.Answer;
+
+import java.util.function.Consumer;
+
+/**
+ * SnapshotFixture
+ * Gemeinsame Testdaten der Tests von ReloadableSnapshot, EmployeeSearchIndex und EmployeeColumnStore
+ * @author Jannis Milz
+ * @version 18.10.2026
+ */
+final class SnapshotFixture {
+   static final Department IT = Department.builder().id(1).description("IT").build();
+   static final Department HR = Department.builder().id(2).description("HR").build();
+
+   private SnapshotFixture() {
+   }
+
+   static Employee employee(int id, String firstname, String lastname, Department department) {
+      return Employee.builder().id(id).firstname(firstname).lastname(lastname).department(department).build();
+   }
+
+   /**
+    * Antwort für scanEmployeeSummaries und streamEmployeeSummaries: übergibt die Employees dem Consumer,
+    * dem letzten Argument beider Methoden.
+    */
+   static Answer<Long> reading(Employee... employees) {
+      return invocation -> {
+         Consumer<EmployeeSummary> consumer = invocation.getArgument(invocation.getArguments().length - 1);
+         for (Employee employee : employees) {
+            consumer.accept(EmployeeSummary.of(employee));
+         }
+         return (long) employees.length;
+      };
+   }
+}